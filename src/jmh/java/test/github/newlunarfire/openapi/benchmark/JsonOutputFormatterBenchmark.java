@@ -0,0 +1,132 @@
+package test.github.newlunarfire.openapi.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.newlunarfire.openapi.defs.APIDefinition;
+import io.github.newlunarfire.openapi.defs.MethodDefinition;
+import io.github.newlunarfire.openapi.defs.ResourceDefinition;
+import io.github.newlunarfire.openapi.defs.type.ClassDefinition;
+import io.github.newlunarfire.openapi.defs.type.EnumDefinition;
+import io.github.newlunarfire.openapi.defs.type.ListDefinition;
+import io.github.newlunarfire.openapi.defs.type.PrimitiveDefinition;
+import io.github.newlunarfire.openapi.defs.type.ReferenceDefinition;
+import io.github.newlunarfire.openapi.defs.type.TypeDefinition;
+import io.github.newlunarfire.openapi.output.JsonOutputFormatter;
+import io.github.newlunarfire.openapi.output.MulticastOutputListener;
+import io.github.newlunarfire.openapi.output.OutputEmitter;
+import io.github.newlunarfire.openapi.output.YamlOutputFormatter;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JsonOutputFormatterBenchmark {
+	@Param({"10", "100", "1000"})
+	private int resources;
+	
+	@Param({"1", "4", "16"})
+	private int depth;
+	
+	private OutputEmitter emitter;
+	
+	@Setup
+	public void setup() {
+		APIDefinition api = new APIDefinition();
+		api.setTitle("Benchmark");
+		api.setVersion("1.0.0");
+		api.setServers("[{\"url\":\"http://api.example.com/\"}]");
+		api.setResources(new ArrayList<ResourceDefinition>());
+		
+		EnumDefinition status = new EnumDefinition();
+		status.getValues().put("ACTIVE", "Active");
+		status.getValues().put("DELETED", "Deleted");
+		api.getSchemas().put("Status", status);
+		
+		for(int i = 0; i < resources; i++) {
+			for(int level = 0; level < depth; level++) {
+				ClassDefinition dto = new ClassDefinition();
+				dto.setDescription("Level " + level + " of item " + i);
+				dto.getChildren().put("id", primitive("long"));
+				dto.getChildren().put("name", primitive("string"));
+				dto.getChildren().put("status", new ReferenceDefinition("Status"));
+				
+				ListDefinition tags = new ListDefinition();
+				tags.setSubType(primitive("string"));
+				dto.getChildren().put("tags", tags);
+				
+				if(level + 1 < depth) {
+					dto.getChildren().put("child", new ReferenceDefinition(dtoName(i, level + 1)));
+				}
+				
+				api.getSchemas().put(dtoName(i, level), dto);
+			}
+			
+			ResourceDefinition resource = new ResourceDefinition();
+			resource.setBasePath("/resource" + i);
+			resource.getMethods().add(method("GET", "/{id}", i));
+			resource.getMethods().add(method("PUT", "/{id}", i));
+			resource.getMethods().add(method("DELETE", "/{id}", i));
+			resource.getMethods().add(method("POST", null, i));
+			api.getResources().add(resource);
+		}
+		
+		emitter = new OutputEmitter(api);
+	}
+	
+	@Benchmark
+	public void output() throws IOException {
+		emitter.emit(new JsonOutputFormatter(OutputStream.nullOutputStream()));
+	}
+	
+	@Benchmark
+	public void outputJsonAndYaml() throws IOException {
+		emitter.emit(new MulticastOutputListener(List.of(
+			new JsonOutputFormatter(OutputStream.nullOutputStream()),
+			new YamlOutputFormatter(OutputStream.nullOutputStream())
+		)));
+	}
+	
+	private static MethodDefinition method(String verb, String path, int i) {
+		MethodDefinition method = new MethodDefinition();
+		method.setVerb(verb);
+		method.setPath(path);
+		method.setBody(verb + " an item");
+		method.setProduces("application/json");
+		method.setConsumes("application/json");
+		method.setReturnType(new ReferenceDefinition(dtoName(i, 0)));
+		method.setRequestBody(new ReferenceDefinition(dtoName(i, 0)));
+		
+		if(path != null) {
+			method.addPathParameter("id", primitive("long"));
+			method.addPathParameterDescription("id", "The item identifier");
+		}
+		
+		return method;
+	}
+	
+	private static TypeDefinition primitive(String type) {
+		return PrimitiveDefinition.of(type);
+	}
+	
+	private static String dtoName(int i, int level) {
+		return "Item" + i + "Level" + level;
+	}
+}
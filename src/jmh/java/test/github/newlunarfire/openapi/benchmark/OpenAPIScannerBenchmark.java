@@ -0,0 +1,116 @@
+package test.github.newlunarfire.openapi.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import javax.lang.model.SourceVersion;
+import javax.tools.DocumentationTool;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.newlunarfire.openapi.OpenAPIScanner;
+import io.github.newlunarfire.openapi.defs.APIDefinition;
+import jdk.javadoc.doclet.Doclet;
+import jdk.javadoc.doclet.DocletEnvironment;
+import jdk.javadoc.doclet.Reporter;
+import test.github.newlunarfire.openapi.SyntheticApiGenerator;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class OpenAPIScannerBenchmark {
+	@Param({"10", "100", "500"})
+	private int resources;
+	
+	@Param({"1", "4"})
+	private int depth;
+	
+	private Path directory;
+	private DocumentationTool tool;
+	private StandardJavaFileManager fileManager;
+	private Iterable<? extends JavaFileObject> sources;
+	
+	@Setup
+	public void setup() throws IOException {
+		directory = Files.createTempDirectory("openapi-benchmark");
+		tool = ToolProvider.getSystemDocumentationTool();
+		fileManager = tool.getStandardFileManager(null, Locale.ROOT, StandardCharsets.UTF_8);
+		sources = fileManager.getJavaFileObjectsFromPaths(new SyntheticApiGenerator().resources(resources).depth(depth).generate(directory));
+	}
+	
+	@TearDown
+	public void tearDown() throws IOException {
+		fileManager.close();
+		
+		try(Stream<Path> files = Files.walk(directory)) {
+			files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+		}
+	}
+	
+	@Benchmark
+	public APIDefinition scan() {
+		List<String> options = List.of("-quiet", "-classpath", System.getProperty("java.class.path"));
+		
+		if(!tool.getTask(null, fileManager, null, ScanDoclet.class, options, sources).call()) {
+			throw new IllegalStateException("javadoc failed");
+		}
+		
+		return ScanDoclet.result;
+	}
+	
+	public static class ScanDoclet implements Doclet {
+		private static APIDefinition result;
+		
+		@Override
+		public void init(Locale locale, Reporter reporter) {
+		}
+		
+		@Override
+		public String getName() {
+			return ScanDoclet.class.getSimpleName();
+		}
+		
+		@Override
+		public Set<? extends Option> getSupportedOptions() {
+			return Set.of();
+		}
+		
+		@Override
+		public SourceVersion getSupportedSourceVersion() {
+			return SourceVersion.latest();
+		}
+		
+		@Override
+		public boolean run(DocletEnvironment environment) {
+			OpenAPIScanner scanner = new OpenAPIScanner();
+			scanner.setPackages(List.of(SyntheticApiGenerator.RESOURCE_PACKAGE));
+			result = scanner.scan(environment);
+			return true;
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package io.github.newlunarfire.openapi;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Name;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+
+public class AnnotationIndex {
+	private static final String VALUE_ATTRIBUTE = "value";
+	private static final String NAME_ATTRIBUTE = "name";
+	
+	private final TypeElement httpMethodAnnotation;
+	private final Metrics metrics;
+	private final Map<Element, Map<TypeElement, String>> values = new HashMap<Element, Map<TypeElement, String>>();
+	private final Map<TypeElement, Optional<String>> verbs = new HashMap<TypeElement, Optional<String>>();
+	
+	public AnnotationIndex(Elements elements, Metrics metrics) {
+		this.httpMethodAnnotation = elements.getTypeElement(Constants.OPENAPIDOCLET_HTTPMETHOD_ANNOTATION);
+		this.metrics = metrics;
+	}
+	
+	public void index(List<TypeElement> types) {
+		try(var timer = metrics.time(Metrics.ANNOTATIONS_PHASE)) {
+			for(TypeElement type : types) {
+				get(type);
+				
+				for(ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+					get(method);
+					method.getParameters().forEach(this::get);
+				}
+			}
+		}
+	}
+	
+	public boolean has(Element element, TypeElement annotation) {
+		return get(element).containsKey(annotation);
+	}
+	
+	public String getValue(Element element, TypeElement annotation) {
+		return get(element).get(annotation);
+	}
+	
+	/**
+	 * Returns the verb of the first annotation of the element that is annotated with {@code @HttpMethod}.
+	 */
+	public Optional<String> getVerb(Element element) {
+		for(TypeElement annotation : get(element).keySet()) {
+			Optional<String> verb = verbs.computeIfAbsent(annotation, this::extractVerb);
+			
+			if(verb.isPresent()) {
+				return verb;
+			}
+		}
+		
+		return Optional.empty();
+	}
+	
+	private Map<TypeElement, String> get(Element element) {
+		return values.computeIfAbsent(element, e -> extract(e.getAnnotationMirrors()));
+	}
+	
+	private Map<TypeElement, String> extract(List<? extends AnnotationMirror> mirrors) {
+		if(mirrors.isEmpty()) {
+			return Collections.emptyMap();
+		}
+		
+		// Declaration order, so the first verb annotation of a method is the one used
+		Map<TypeElement, String> annotations = new LinkedHashMap<TypeElement, String>(mirrors.size() * 2);
+		
+		for(AnnotationMirror mirror : mirrors) {
+			annotations.put((TypeElement) mirror.getAnnotationType().asElement(), getValue(mirror));
+		}
+		
+		metrics.items(Metrics.ANNOTATIONS_PHASE, mirrors.size());
+		return annotations;
+	}
+	
+	private Optional<String> extractVerb(TypeElement annotation) {
+		if(httpMethodAnnotation == null) {
+			return Optional.empty();
+		}
+		
+		return annotation.getAnnotationMirrors().stream()
+				.filter(mirror -> mirror.getAnnotationType().asElement().equals(httpMethodAnnotation))
+				.map(mirror -> mirror.getElementValues().values().iterator().next().getValue().toString())
+				.findFirst();
+	}
+	
+	private static String getValue(AnnotationMirror annotation) {
+		String name = null;
+		
+		for(var value : annotation.getElementValues().entrySet()) {
+			Name attribute = value.getKey().getSimpleName();
+			
+			if(attribute.contentEquals(VALUE_ATTRIBUTE)) {
+				return value.getValue().getValue().toString();
+			} else if(attribute.contentEquals(NAME_ATTRIBUTE)) {
+				name = value.getValue().getValue().toString();
+			}
+		}
+		
+		return name;
+	}
+}
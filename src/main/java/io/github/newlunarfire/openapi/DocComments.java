@@ -0,0 +1,468 @@
+package io.github.newlunarfire.openapi;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+
+import com.sun.source.doctree.AttributeTree;
+import com.sun.source.doctree.DocCommentTree;
+import com.sun.source.doctree.DocTree;
+import com.sun.source.doctree.EndElementTree;
+import com.sun.source.doctree.EntityTree;
+import com.sun.source.doctree.LinkTree;
+import com.sun.source.doctree.LiteralTree;
+import com.sun.source.doctree.StartElementTree;
+import com.sun.source.doctree.TextTree;
+import com.sun.source.util.DocTreePath;
+import com.sun.source.util.DocTreeScanner;
+import com.sun.source.util.DocTrees;
+import com.sun.source.util.SimpleDocTreeVisitor;
+import com.sun.source.util.TreePath;
+
+import lombok.Getter;
+
+/**
+ * Parses doc comments and renders them to CommonMark. Both steps are done at most once per element. Parsing and
+ * resolving links needs javac and stays on its thread, the resulting {@link Comment} can be rendered on any thread.
+ */
+public class DocComments {
+	private static final Map<String, String> ENTITIES = Map.of("lt", "<", "gt", ">", "amp", "&", "quot", "\"", "apos", "'", "nbsp", "\u00a0");
+	
+	private final DocTrees docTrees;
+	private final Metrics metrics;
+	private final Map<Element, Optional<DocCommentTree>> trees = new HashMap<Element, Optional<DocCommentTree>>();
+	private final Map<Element, Optional<Comment>> comments = new HashMap<Element, Optional<Comment>>();
+	
+	@Getter
+	private int hits = 0;
+	
+	public DocComments(DocTrees docTrees, Metrics metrics) {
+		this.docTrees = docTrees;
+		this.metrics = metrics;
+	}
+	
+	public DocCommentTree getTree(Element e) {
+		return trees.computeIfAbsent(e, element -> {
+			try(var timer = metrics.time(Metrics.DOC_COMMENTS_PHASE)) {
+				final DocCommentTree docCommentTree = docTrees.getDocCommentTree(element);
+				metrics.items(Metrics.DOC_COMMENTS_PHASE, docCommentTree == null ? 0 : 1);
+				return Optional.ofNullable(docCommentTree);
+			}
+		}).orElse(null);
+	}
+	
+	/**
+	 * Returns the main description of the element as CommonMark, or null if it has no doc comment.
+	 */
+	public String getDescription(Element e) {
+		final Comment comment = getComment(e);
+		return comment == null ? null : comment.getMarkdown();
+	}
+	
+	/**
+	 * Returns the main description of the element, ready to be rendered, or null if it has no doc comment.
+	 */
+	public Comment getComment(Element e) {
+		Optional<Comment> comment = comments.get(e);
+		
+		if(comment == null) {
+			final DocCommentTree docCommentTree = getTree(e);
+			comment = Optional.ofNullable(docCommentTree).map(tree -> getComment(e, tree.getFullBody()));
+			comments.put(e, comment);
+		} else {
+			hits++;
+		}
+		
+		return comment.orElse(null);
+	}
+	
+	/**
+	 * Returns part of the doc comment of an element, such as the description of a block tag, ready to be rendered.
+	 */
+	public Comment getComment(Element e, List<? extends DocTree> body) {
+		final DocTreePath commentPath = commentPath(e);
+		final Map<DocTree, String> links = new IdentityHashMap<DocTree, String>();
+		
+		if(commentPath != null) {
+			new DocTreeScanner<Void, Void>() {
+				@Override
+				public Void visitLink(LinkTree node, Void p) {
+					final Element element = docTrees.getElement(new DocTreePath(commentPath, node.getReference()));
+					
+					if(element != null) {
+						links.put(node.getReference(), displayName(element));
+					}
+					
+					return super.visitLink(node, p);
+				}
+			}.scan(body, null);
+		}
+		
+		return new Comment(body, links);
+	}
+	
+	/**
+	 * Forgets the comments of the elements scanned so far.
+	 */
+	public void clear() {
+		trees.clear();
+		comments.clear();
+	}
+	
+	private DocTreePath commentPath(Element e) {
+		final TreePath path = docTrees.getPath(e);
+		final DocCommentTree docCommentTree = getTree(e);
+		return path == null || docCommentTree == null ? null : new DocTreePath(path, docCommentTree);
+	}
+	
+	/**
+	 * Doc trees with the names of the elements their links refer to. Doc trees do not change once parsed, so a comment
+	 * can be rendered on any thread. It is rendered once.
+	 */
+	public static class Comment {
+		private final List<? extends DocTree> body;
+		private final Map<DocTree, String> links;
+		private String markdown;
+		
+		private Comment(List<? extends DocTree> body, Map<DocTree, String> links) {
+			this.body = body;
+			this.links = links;
+		}
+		
+		public synchronized String getMarkdown() {
+			if(markdown == null) {
+				final MarkdownWriter writer = new MarkdownWriter(links);
+				
+				for(DocTree tree : body) {
+					tree.accept(writer, null);
+				}
+				
+				markdown = writer.toString();
+			}
+			
+			return markdown;
+		}
+	}
+	
+	private static class MarkdownWriter extends SimpleDocTreeVisitor<Void, Void> {
+		private final StringBuilder out = new StringBuilder();
+		// Display names of the elements of resolved links, by reference
+		private final Map<DocTree, String> links;
+		// Empty for unordered lists, the next item number for ordered ones
+		private final Deque<int[]> lists = new ArrayDeque<int[]>();
+		private final Deque<String> hrefs = new ArrayDeque<String>();
+		private int code = 0;
+		private boolean pre = false;
+		
+		private MarkdownWriter(Map<DocTree, String> links) {
+			this.links = links;
+		}
+		
+		@Override
+		public Void visitText(TextTree node, Void p) {
+			text(node.getBody());
+			return null;
+		}
+		
+		@Override
+		public Void visitEntity(EntityTree node, Void p) {
+			final String name = node.getName().toString();
+			
+			try {
+				if(name.startsWith("#x") || name.startsWith("#X")) {
+					text(new String(Character.toChars(Integer.parseInt(name.substring(2), 16))));
+				} else if(name.startsWith("#")) {
+					text(new String(Character.toChars(Integer.parseInt(name.substring(1)))));
+				} else {
+					text(ENTITIES.getOrDefault(name.toLowerCase(Locale.ROOT), "&" + name + ";"));
+				}
+			} catch (IllegalArgumentException e) {
+				// Not a code point, such as &#99999999;, it is kept as written
+				text("&" + name + ";");
+			}
+			
+			return null;
+		}
+		
+		@Override
+		public Void visitLiteral(LiteralTree node, Void p) {
+			final String body = node.getBody().getBody();
+			
+			if(pre || code > 0 || node.getKind() == DocTree.Kind.LITERAL) {
+				text(body);
+			} else {
+				codeSpan(body);
+			}
+			
+			return null;
+		}
+		
+		@Override
+		public Void visitLink(LinkTree node, Void p) {
+			if(!node.getLabel().isEmpty()) {
+				node.getLabel().forEach(label -> label.accept(this, null));
+				return null;
+			}
+			
+			final String signature = node.getReference().getSignature();
+			final String name = links.getOrDefault(node.getReference(), signature.replace('#', '.'));
+			
+			if(node.getKind() == DocTree.Kind.LINK_PLAIN || pre || code > 0) {
+				text(name);
+			} else {
+				codeSpan(name);
+			}
+			
+			return null;
+		}
+		
+		@Override
+		public Void visitStartElement(StartElementTree node, Void p) {
+			final String name = node.getName().toString().toLowerCase(Locale.ROOT);
+			
+			switch(name) {
+				case "p":
+					paragraph();
+					break;
+				case "br":
+					out.append(pre ? "\n" : "\\\n");
+					break;
+				case "b":
+				case "strong":
+					out.append("**");
+					break;
+				case "i":
+				case "em":
+					out.append("*");
+					break;
+				case "code":
+				case "tt":
+					out.append(code++ == 0 && !pre ? "`" : "");
+					break;
+				case "pre":
+					paragraph();
+					out.append("```\n");
+					pre = true;
+					break;
+				case "ul":
+					paragraph();
+					lists.push(new int[0]);
+					break;
+				case "ol":
+					paragraph();
+					lists.push(new int[] { 1 });
+					break;
+				case "li":
+					listItem();
+					break;
+				case "a":
+					final String href = attribute(node, "href");
+					hrefs.push(href == null ? "" : href);
+					out.append(href == null ? "" : "[");
+					break;
+				case "h1":
+				case "h2":
+				case "h3":
+				case "h4":
+				case "h5":
+				case "h6":
+					paragraph();
+					out.append("#".repeat(name.charAt(1) - '0')).append(' ');
+					break;
+				default:
+					// Other tags are dropped, their content is kept
+			}
+			
+			return null;
+		}
+		
+		@Override
+		public Void visitEndElement(EndElementTree node, Void p) {
+			final String name = node.getName().toString().toLowerCase(Locale.ROOT);
+			
+			switch(name) {
+				case "b":
+				case "strong":
+					out.append("**");
+					break;
+				case "i":
+				case "em":
+					out.append("*");
+					break;
+				case "code":
+				case "tt":
+					out.append(code > 0 && --code == 0 && !pre ? "`" : "");
+					break;
+				case "pre":
+					pre = false;
+					newLine();
+					out.append("```");
+					paragraph();
+					break;
+				case "ul":
+				case "ol":
+					lists.poll();
+					paragraph();
+					break;
+				case "a":
+					final String href = hrefs.poll();
+					out.append(href == null || href.isEmpty() ? "" : "](" + href + ")");
+					break;
+				case "h1":
+				case "h2":
+				case "h3":
+				case "h4":
+				case "h5":
+				case "h6":
+					paragraph();
+					break;
+				default:
+			}
+			
+			return null;
+		}
+		
+		@Override
+		protected Void defaultAction(DocTree node, Void p) {
+			// Inline tags without a Markdown equivalent, such as {@docRoot}, are kept as they are
+			text(node.toString());
+			return null;
+		}
+		
+		@Override
+		public String toString() {
+			return out.toString().strip();
+		}
+		
+		private void text(String text) {
+			if(pre) {
+				// The line break after <pre> is not part of the content
+				boolean blockStart = out.length() > 0 && out.charAt(out.length() - 1) == '\n';
+				out.append(blockStart && text.startsWith("\n") ? text.substring(1) : text);
+				return;
+			}
+			
+			for(int i = 0; i < text.length(); i++) {
+				final char c = text.charAt(i);
+				
+				if(Character.isWhitespace(c)) {
+					// Line breaks and indentation of the comment are not significant
+					if(out.length() > 0 && !Character.isWhitespace(out.charAt(out.length() - 1))) {
+						out.append(' ');
+					}
+					
+					continue;
+				}
+				
+				if(code == 0 && isSpecial(text, i)) {
+					out.append('\\');
+				}
+				
+				out.append(c);
+			}
+		}
+		
+		private boolean isSpecial(String text, int i) {
+			switch(text.charAt(i)) {
+				case '\\':
+				case '`':
+				case '*':
+				case '[':
+				case ']':
+				case '<':
+					return true;
+				case '_':
+					// Underscores inside words never start emphasis
+					return i == 0 || i == text.length() - 1 || !Character.isLetterOrDigit(text.charAt(i - 1)) || !Character.isLetterOrDigit(text.charAt(i + 1));
+				default:
+					return false;
+			}
+		}
+		
+		private void codeSpan(String value) {
+			// The fence has to be longer than any run of backticks in the value
+			String fence = "`";
+			
+			while(value.contains(fence)) {
+				fence += "`";
+			}
+			
+			final boolean padded = value.startsWith("`") || value.endsWith("`");
+			out.append(fence).append(padded ? " " : "").append(value).append(padded ? " " : "").append(fence);
+		}
+		
+		private void listItem() {
+			newLine();
+			out.append("  ".repeat(Math.max(0, lists.size() - 1)));
+			
+			final int[] counter = lists.peek();
+			out.append(counter == null || counter.length == 0 ? "- " : counter[0]++ + ". ");
+		}
+		
+		private void newLine() {
+			trimTrailingSpaces();
+			
+			if(out.length() > 0 && out.charAt(out.length() - 1) != '\n') {
+				out.append('\n');
+			}
+		}
+		
+		private void paragraph() {
+			trimTrailingSpaces();
+			
+			if(out.length() == 0 || out.toString().endsWith("\n\n")) {
+				return;
+			}
+			
+			out.append(out.charAt(out.length() - 1) == '\n' ? "\n" : "\n\n");
+		}
+		
+		private void trimTrailingSpaces() {
+			while(out.length() > 0 && out.charAt(out.length() - 1) == ' ') {
+				out.setLength(out.length() - 1);
+			}
+		}
+		
+		private String attribute(StartElementTree node, String name) {
+			for(DocTree attribute : node.getAttributes()) {
+				if(attribute instanceof AttributeTree && name.equalsIgnoreCase(((AttributeTree) attribute).getName().toString())) {
+					final List<? extends DocTree> value = ((AttributeTree) attribute).getValue();
+					final StringBuilder href = new StringBuilder();
+					
+					if(value != null) {
+						value.forEach(v -> href.append(v.toString()));
+					}
+					
+					return href.toString();
+				}
+			}
+			
+			return null;
+		}
+	}
+	
+	private static String displayName(Element element) {
+		if(element instanceof TypeElement) {
+			return element.getSimpleName().toString();
+		}
+		
+		final String owner = element.getEnclosingElement().getSimpleName().toString();
+		
+		if(element instanceof ExecutableElement) {
+			final String name = element.getKind() == ElementKind.CONSTRUCTOR ? owner : element.getSimpleName().toString();
+			return owner + "." + name + "()";
+		}
+		
+		return owner + "." + element.getSimpleName();
+	}
+}
@@ -0,0 +1,212 @@
+package io.github.newlunarfire.openapi;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.tools.Diagnostic;
+
+import com.google.gson.stream.JsonWriter;
+
+import jdk.javadoc.doclet.Reporter;
+
+public class Metrics {
+	public static final String FILTER_PHASE = "filter";
+	public static final String ANNOTATIONS_PHASE = "annotations";
+	public static final String DOC_COMMENTS_PHASE = "docComments";
+	public static final String SCAN_TYPE_PHASE = "scanType";
+	public static final String TRANSFORM_PHASE = "transform";
+	public static final String RENDER_PHASE = "render";
+	public static final String WRITE_PHASE = "write";
+	
+	private static final Timer NO_TIMER = () -> {};
+	private static final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+	
+	private final boolean enabled;
+	private final Map<String, Phase> phases = new LinkedHashMap<String, Phase>();
+	private final Map<String, Long> counters = new LinkedHashMap<String, Long>();
+	
+	public Metrics(boolean enabled) {
+		this.enabled = enabled;
+	}
+	
+	public static Metrics disabled() {
+		return new Metrics(false);
+	}
+	
+	public boolean isEnabled() {
+		return enabled;
+	}
+	
+	public Timer time(String name) {
+		if(!enabled) {
+			return NO_TIMER;
+		}
+		
+		final Phase phase = phase(name);
+		final long startAllocated = allocatedBytes();
+		final long start = System.nanoTime();
+		
+		return () -> phase.record(System.nanoTime() - start, allocatedBytes() - startAllocated);
+	}
+	
+	public void items(String name, long count) {
+		if(enabled) {
+			phase(name).addItems(count);
+		}
+	}
+	
+	public void count(String counter, long value) {
+		if(enabled) {
+			synchronized(counters) {
+				counters.merge(counter, value, Long::sum);
+			}
+		}
+	}
+	
+	public void max(String counter, long value) {
+		if(enabled) {
+			synchronized(counters) {
+				counters.merge(counter, value, Math::max);
+			}
+		}
+	}
+	
+	public long getCount(String counter) {
+		synchronized(counters) {
+			return counters.getOrDefault(counter, 0L);
+		}
+	}
+	
+	public OutputStream measure(String name, OutputStream out) {
+		return enabled ? new MeasuredOutputStream(out, phase(name)) : out;
+	}
+	
+	public void report(Reporter reporter) {
+		if(!enabled) {
+			return;
+		}
+		
+		for(var phase : phases.entrySet()) {
+			reporter.print(Diagnostic.Kind.NOTE, String.format("%-12s %8.1f ms %12d bytes allocated %10d calls %10d items",
+					phase.getKey(),
+					phase.getValue().wallNanos / 1_000_000.0,
+					phase.getValue().allocatedBytes,
+					phase.getValue().calls,
+					phase.getValue().items));
+		}
+		
+		for(var counter : counters.entrySet()) {
+			reporter.print(Diagnostic.Kind.NOTE, String.format("%-24s %10d", counter.getKey(), counter.getValue()));
+		}
+	}
+	
+	public void write(Path file) throws IOException {
+		try(Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			JsonWriter writer = new JsonWriter(out);
+			writer.setIndent("  ");
+			
+			writer.beginObject();
+			writer.name("phases").beginObject();
+			for(var phase : phases.entrySet()) {
+				writer.name(phase.getKey()).beginObject();
+				writer.name("wallNanos").value(phase.getValue().wallNanos);
+				writer.name("allocatedBytes").value(phase.getValue().allocatedBytes);
+				writer.name("calls").value(phase.getValue().calls);
+				writer.name("items").value(phase.getValue().items);
+				writer.endObject();
+			}
+			writer.endObject();
+			
+			writer.name("counters").beginObject();
+			for(var counter : counters.entrySet()) {
+				writer.name(counter.getKey()).value(counter.getValue());
+			}
+			writer.endObject();
+			writer.endObject();
+			writer.flush();
+		}
+	}
+	
+	private synchronized Phase phase(String name) {
+		return phases.computeIfAbsent(name, n -> new Phase());
+	}
+	
+	private static long allocatedBytes() {
+		// Only the calling thread is accounted for, work done on other threads is not included
+		if(threads instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		
+		return 0;
+	}
+	
+	public interface Timer extends AutoCloseable {
+		@Override
+		void close();
+	}
+	
+	private static class Phase {
+		private long wallNanos;
+		private long allocatedBytes;
+		private long calls;
+		private long items;
+		
+		private synchronized void record(long nanos, long allocated) {
+			this.wallNanos += nanos;
+			this.allocatedBytes += allocated;
+			this.calls++;
+		}
+		
+		private synchronized void addItems(long count) {
+			this.items += count;
+		}
+	}
+	
+	private static class MeasuredOutputStream extends FilterOutputStream {
+		private final Phase phase;
+		
+		private MeasuredOutputStream(OutputStream out, Phase phase) {
+			super(out);
+			this.phase = phase;
+		}
+		
+		@Override
+		public void write(int b) throws IOException {
+			long start = System.nanoTime();
+			out.write(b);
+			phase.record(System.nanoTime() - start, 0);
+			phase.addItems(1);
+		}
+		
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			long start = System.nanoTime();
+			out.write(b, off, len);
+			phase.record(System.nanoTime() - start, 0);
+			phase.addItems(len);
+		}
+		
+		@Override
+		public void flush() throws IOException {
+			long start = System.nanoTime();
+			out.flush();
+			phase.record(System.nanoTime() - start, 0);
+		}
+		
+		@Override
+		public void close() throws IOException {
+			long start = System.nanoTime();
+			super.close();
+			phase.record(System.nanoTime() - start, 0);
+		}
+	}
+}
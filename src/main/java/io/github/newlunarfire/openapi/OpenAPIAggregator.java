@@ -0,0 +1,251 @@
+package io.github.newlunarfire.openapi;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import io.github.newlunarfire.openapi.defs.APIDefinition;
+import io.github.newlunarfire.openapi.defs.MethodDefinition;
+import io.github.newlunarfire.openapi.defs.ResourceDefinition;
+import io.github.newlunarfire.openapi.defs.type.TypeDefinition;
+import io.github.newlunarfire.openapi.defs.type.TypeDefinitions;
+import io.github.newlunarfire.openapi.output.PathTrie;
+import io.github.newlunarfire.openapi.snapshot.SnapshotCodec;
+import lombok.Getter;
+
+/**
+ * Merges the snapshots of several modules, written with -apiSnapshot, into one document. Snapshots are read in
+ * parallel, and a schema used by several modules is written once as long as it has the same structure in each of them.
+ */
+public class OpenAPIAggregator {
+	private static final String USAGE = "Usage: OpenAPIAggregator -d <directory> [-doctitle <title>] [-apiVersion <version>] [-apiServers <servers>]"
+			+ " [-apiFormats <formats>] [-apiCompact] [-apiGzip] [-apiShards] [-apiParallelism <threads>] <snapshot>...";
+	private static final Pattern UNSAFE_NAME_CHARACTERS = Pattern.compile("[^A-Za-z0-9._-]+");
+	
+	// Schemas and operations declared differently by several modules
+	@Getter
+	private final List<String> collisions = new ArrayList<String>();
+	
+	public static List<APIDefinition> read(List<Path> snapshots) throws IOException {
+		try {
+			return snapshots.parallelStream().map(OpenAPIAggregator::read).collect(Collectors.toList());
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+	
+	private static APIDefinition read(Path snapshot) {
+		try(InputStream in = Files.newInputStream(snapshot)) {
+			return SnapshotCodec.read(in);
+		} catch (IOException e) {
+			throw new UncheckedIOException(new IOException("Could not read " + snapshot + ": " + e.getMessage(), e));
+		}
+	}
+	
+	/**
+	 * Merges the definitions of the modules, which are modified in the process. The first module to use a schema name
+	 * keeps it, a later module with a structurally different schema of the same name gets it renamed after the module.
+	 * An operation declared by several modules is taken from the first one.
+	 */
+	public APIDefinition merge(List<String> modules, List<APIDefinition> apis) {
+		final APIDefinition merged = new APIDefinition();
+		merged.setResources(new ArrayList<ResourceDefinition>());
+		
+		final Map<String, Long> hashes = new HashMap<String, Long>();
+		final Map<String, String> schemaModules = new HashMap<String, String>();
+		final Map<String, String> operationModules = new HashMap<String, String>();
+		
+		for(int i = 0; i < apis.size(); i++) {
+			final String module = modules.get(i);
+			final APIDefinition api = apis.get(i);
+			
+			if(i == 0) {
+				merged.setTitle(api.getTitle());
+				merged.setVersion(api.getVersion());
+				merged.setServers(api.getServers());
+			}
+			
+			final Map<String, String> renames = renameCollisions(module, api, merged, hashes, schemaModules);
+			
+			for(var schema : api.getSchemas().entrySet()) {
+				final String name = renames.getOrDefault(schema.getKey(), schema.getKey());
+				
+				if(!merged.getSchemas().containsKey(name)) {
+					merged.getSchemas().put(name, schema.getValue());
+					hashes.put(name, TypeDefinitions.structuralHash(schema.getValue()));
+					schemaModules.put(name, module);
+				}
+			}
+			
+			for(ResourceDefinition resource : api.getResources()) {
+				resource.getMethods().removeIf(method -> {
+					final String operation = method.getVerb() + " " + PathTrie.normalize(resource.getBasePath(), method.getPath());
+					final String owner = operationModules.putIfAbsent(operation, module);
+					
+					if(owner != null) {
+						collisions.add("Operation " + operation + " of " + module + " is already declared by " + owner + ", skipped");
+					}
+					
+					return owner != null;
+				});
+				
+				if(!resource.getMethods().isEmpty()) {
+					merged.getResources().add(resource);
+				}
+			}
+		}
+		
+		return merged;
+	}
+	
+	private Map<String, String> renameCollisions(String module, APIDefinition api, APIDefinition merged, Map<String, Long> hashes, Map<String, String> schemaModules) {
+		final Map<String, String> renames = new HashMap<String, String>();
+		Map<String, String> added;
+		
+		// Renaming a schema changes the schemas that reference it, which can then collide as well
+		do {
+			added = new HashMap<String, String>();
+			
+			for(var schema : api.getSchemas().entrySet()) {
+				final String name = schema.getKey();
+				final Long hash = hashes.get(name);
+				
+				if(hash != null && !renames.containsKey(name) && hash.longValue() != TypeDefinitions.structuralHash(schema.getValue())) {
+					final String newName = uniqueName(name + "_" + UNSAFE_NAME_CHARACTERS.matcher(module).replaceAll("_"), api, merged);
+					added.put(name, newName);
+					collisions.add("Schema " + name + " of " + module + " differs from the one of " + schemaModules.get(name) + ", renamed to " + newName);
+				}
+			}
+			
+			renames.putAll(added);
+			renameReferences(api, added);
+		} while(!added.isEmpty());
+		
+		return renames;
+	}
+	
+	private static String uniqueName(String base, APIDefinition api, APIDefinition merged) {
+		String name = base;
+		
+		for(int i = 2; merged.getSchemas().containsKey(name) || api.getSchemas().containsKey(name); i++) {
+			name = base + "_" + i;
+		}
+		
+		return name;
+	}
+	
+	private static void renameReferences(APIDefinition api, Map<String, String> names) {
+		if(names.isEmpty()) {
+			return;
+		}
+		
+		for(TypeDefinition schema : api.getSchemas().values()) {
+			TypeDefinitions.renameReferences(schema, names);
+		}
+		
+		for(ResourceDefinition resource : api.getResources()) {
+			for(MethodDefinition method : resource.getMethods()) {
+				method.getPathParameters().values().forEach(type -> TypeDefinitions.renameReferences(type, names));
+				TypeDefinitions.renameReferences(method.getReturnType(), names);
+				TypeDefinitions.renameReferences(method.getRequestBody(), names);
+			}
+		}
+	}
+	
+	public static void main(String[] args) {
+		OpenAPIRenderer renderer = new OpenAPIRenderer();
+		List<Path> snapshots = new ArrayList<Path>();
+		String title = null;
+		String version = null;
+		String servers = null;
+		
+		try {
+			for(int i = 0; i < args.length; i++) {
+				switch(args[i]) {
+					case "-d":
+						renderer.setOutputDirectory(Paths.get(args[++i]));
+						break;
+					case "-doctitle":
+						title = args[++i];
+						break;
+					case "-apiVersion":
+						version = args[++i];
+						break;
+					case "-apiServers":
+						servers = args[++i];
+						break;
+					case "-apiFormats":
+						renderer.setFormats(OpenAPIRenderer.parseFormats(args[++i]));
+						break;
+					case "-apiCompact":
+						renderer.setCompact(true);
+						break;
+					case "-apiGzip":
+						renderer.setGzip(true);
+						break;
+					case "-apiShards":
+						renderer.setShards(true);
+						break;
+					case "-apiParallelism":
+						renderer.setParallelism(OpenAPIRenderer.parseParallelism(args[++i]));
+						break;
+					default:
+						if(args[i].startsWith("-")) {
+							throw new IllegalArgumentException("Unknown option " + args[i]);
+						}
+						
+						snapshots.add(Paths.get(args[i]));
+				}
+			}
+		} catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+			System.err.println(e instanceof ArrayIndexOutOfBoundsException ? "Missing value for " + args[args.length - 1] : e.getMessage());
+			System.err.println(USAGE);
+			System.exit(1);
+		}
+		
+		if(snapshots.isEmpty() || renderer.getOutputDirectory() == null) {
+			System.err.println(USAGE);
+			System.exit(1);
+		}
+		
+		try {
+			final long start = System.nanoTime();
+			
+			// Modules are named after their snapshot file, without its extension
+			final List<String> modules = snapshots.stream()
+					.map(snapshot -> snapshot.getFileName().toString().replaceFirst("\\.[^.]*$", ""))
+					.collect(Collectors.toList());
+			
+			final OpenAPIAggregator aggregator = new OpenAPIAggregator();
+			final APIDefinition api = aggregator.merge(modules, read(snapshots));
+			aggregator.getCollisions().forEach(System.err::println);
+			
+			if(title != null) {
+				api.setTitle(title);
+			}
+			
+			if(version != null) {
+				api.setVersion(version);
+			}
+			
+			if(servers != null) {
+				api.setServers(servers);
+			}
+			
+			renderer.render(api);
+			System.err.println("Merged " + snapshots.size() + " snapshots in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+		} catch (IOException e) {
+			e.printStackTrace();
+			System.exit(1);
+		}
+	}
+}
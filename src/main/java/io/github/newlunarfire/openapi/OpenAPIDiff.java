@@ -0,0 +1,68 @@
+package io.github.newlunarfire.openapi;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import io.github.newlunarfire.openapi.defs.APIDefinition;
+import io.github.newlunarfire.openapi.diff.APIDiff;
+import io.github.newlunarfire.openapi.diff.Change;
+
+/**
+ * Prints the changes between two snapshots written with -apiSnapshot, and exits with status 1 when one of them is
+ * breaking, to stop incompatible changes from being merged. Invalid arguments and unreadable snapshots exit with
+ * status 2, so they are not mistaken for breaking changes.
+ */
+public class OpenAPIDiff {
+	private static final String USAGE = "Usage: OpenAPIDiff [-breakingOnly] <old snapshot> <new snapshot>";
+	private static final int BREAKING_STATUS = 1;
+	private static final int ERROR_STATUS = 2;
+	
+	public static void main(String[] args) {
+		boolean breakingOnly = false;
+		Path before = null;
+		Path after = null;
+		
+		for(String arg : args) {
+			if("-breakingOnly".equals(arg)) {
+				breakingOnly = true;
+			} else if(!arg.startsWith("-") && before == null) {
+				before = Paths.get(arg);
+			} else if(!arg.startsWith("-") && after == null) {
+				after = Paths.get(arg);
+			} else {
+				System.err.println("Unknown option " + arg);
+				System.err.println(USAGE);
+				System.exit(ERROR_STATUS);
+			}
+		}
+		
+		if(after == null) {
+			System.err.println(USAGE);
+			System.exit(ERROR_STATUS);
+		}
+		
+		try {
+			final List<APIDefinition> apis = OpenAPIAggregator.read(List.of(before, after));
+			final APIDiff diff = new APIDiff();
+			diff.diff(apis.get(0), apis.get(1));
+			
+			for(Change change : diff.getChanges()) {
+				if(change.isBreaking() || !breakingOnly) {
+					System.out.println(change);
+				}
+			}
+			
+			final long breaking = diff.getChanges().stream().filter(Change::isBreaking).count();
+			System.err.println(diff.getChanges().size() + " changes, " + breaking + " breaking");
+			
+			if(breaking > 0) {
+				System.exit(BREAKING_STATUS);
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+			System.exit(ERROR_STATUS);
+		}
+	}
+}
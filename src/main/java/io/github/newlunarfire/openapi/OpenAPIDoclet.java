@@ -3,7 +3,6 @@ import jdk.javadoc.doclet.Doclet;
 import jdk.javadoc.doclet.DocletEnvironment;
 import jdk.javadoc.doclet.Reporter;
 
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.file.Paths;
 import java.util.List;
@@ -11,9 +10,11 @@ import java.util.Locale;
 import java.util.Set;
 
 import javax.lang.model.SourceVersion;
+import javax.tools.Diagnostic;
 
 import io.github.newlunarfire.openapi.defs.APIDefinition;
-import io.github.newlunarfire.openapi.output.JsonOutputFormatter;
+import io.github.newlunarfire.openapi.output.AtomicFileOutputStream;
+import io.github.newlunarfire.openapi.snapshot.SnapshotCodec;
 
 public class OpenAPIDoclet implements Doclet  {
 	private final SimpleOption outputDirectoryOption = new SimpleOption(1, "Output Directory", Option.Kind.STANDARD, List.of("-d"), "directory");
@@ -21,9 +22,23 @@ public class OpenAPIDoclet implements Doclet  {
 	private final SimpleOption versionOption = new SimpleOption(1, "API Version", Option.Kind.STANDARD, List.of("-apiVersion"), "apiVersion");
 	private final SimpleOption apiServersOption = new SimpleOption(1, "API Servers", Option.Kind.STANDARD, List.of("-apiServers"), "apiServers");
 	private final SimpleOption packageOption = new SimpleOption(1, "API Resource Packages", Option.Kind.STANDARD, List.of("-apiPackages"), "packages");
-
+	private final SimpleOption cacheDirectoryOption = new SimpleOption(1, "Directory used to cache scanned resources between runs", Option.Kind.STANDARD, List.of("-apiCacheDir"), "directory");
+	private final SimpleOption metricsOption = new SimpleOption(0, "Report time, allocations and counts for each phase", Option.Kind.STANDARD, List.of("-apiMetrics"), "");
+	private final SimpleOption metricsFileOption = new SimpleOption(1, "File to write phase metrics to, as JSON", Option.Kind.STANDARD, List.of("-apiMetricsFile"), "file");
+	private final SimpleOption formatsOption = new SimpleOption(1, "Comma-separated output formats, json and yaml", Option.Kind.STANDARD, List.of("-apiFormats"), "formats");
+	private final SimpleOption compactOption = new SimpleOption(0, "Write the JSON document without whitespace and null values", Option.Kind.STANDARD, List.of("-apiCompact"), "");
+	private final SimpleOption gzipOption = new SimpleOption(0, "Also write a gzip-compressed copy of each document", Option.Kind.STANDARD, List.of("-apiGzip"), "");
+	private final SimpleOption shardsOption = new SimpleOption(0, "Write one file per resource base path and per schema, referenced from the root document", Option.Kind.STANDARD, List.of("-apiShards"), "");
+	private final SimpleOption snapshotOption = new SimpleOption(1, "File to write the scanned model to, for rendering with OpenAPIRenderer", Option.Kind.STANDARD, List.of("-apiSnapshot"), "file");
+	private final SimpleOption streamingOption = new SimpleOption(0, "Write each resource as soon as it is scanned, only keeping the schemas in memory", Option.Kind.STANDARD, List.of("-apiStreaming"), "");
+	private final SimpleOption allOfOption = new SimpleOption(0, "Document subclasses as allOf their superclass schema instead of copying inherited fields", Option.Kind.STANDARD, List.of("-apiAllOf"), "");
+	private final SimpleOption parallelismOption = new SimpleOption(1, "Number of threads used to render the doc comments and the document", Option.Kind.STANDARD, List.of("-apiParallelism"), "threads");
+
+	private Reporter reporter;
+	
 	@Override
 	public void init(Locale locale, Reporter reporter) {
+		this.reporter = reporter;
 	}
 
 	@Override
@@ -39,6 +54,17 @@ public class OpenAPIDoclet implements Doclet  {
 			versionOption,
 			apiServersOption,
 			packageOption,
+			parallelismOption,
+			cacheDirectoryOption,
+			metricsOption,
+			metricsFileOption,
+			formatsOption,
+			compactOption,
+			gzipOption,
+			shardsOption,
+			snapshotOption,
+			streamingOption,
+			allOfOption,
 			new SimpleOption(1, "Window title", Option.Kind.STANDARD, List.of("-windowtitle"), "windowtitle")
 		);
 	}
@@ -55,22 +81,96 @@ public class OpenAPIDoclet implements Doclet  {
 			return false;
 		}
 		
+		final List<String> formats;
+		
+		try {
+			formats = OpenAPIRenderer.parseFormats(formatsOption.getValue());
+		} catch (IllegalArgumentException e) {
+			reporter.print(Diagnostic.Kind.ERROR, e.getMessage());
+			return false;
+		}
+		
+		final int parallelism;
+		
+		try {
+			parallelism = OpenAPIRenderer.parseParallelism(parallelismOption.getValue());
+		} catch (IllegalArgumentException e) {
+			reporter.print(Diagnostic.Kind.ERROR, e.getMessage());
+			return false;
+		}
+		
+		if(streamingOption.getValue() != null && (shardsOption.getValue() != null || snapshotOption.getValue() != null)) {
+			reporter.print(Diagnostic.Kind.ERROR, "-apiStreaming cannot be combined with -apiShards or -apiSnapshot, they need every resource at once");
+			return false;
+		}
+		
+		var metrics = new Metrics(metricsOption.getValue() != null || metricsFileOption.getValue() != null);
 		var scanner = new OpenAPIScanner();
 		
+		scanner.setMetrics(metrics);
+		scanner.setReporter(reporter);
 		scanner.setTitle(documentTitleOption.getValue());
 		scanner.setVersion(versionOption.getValue());
 		scanner.setServers(apiServersOption.getValue());
 		scanner.setPackages(List.of(packageOption.getValue().split(";")));
+		scanner.setAllOf(allOfOption.getValue() != null);
 		
-		APIDefinition api = scanner.scan(environment);
+		if(cacheDirectoryOption.getValue() != null) {
+			scanner.setCacheDirectory(Paths.get(cacheDirectoryOption.getValue()));
+		}
+		
+		OpenAPIRenderer renderer = new OpenAPIRenderer();
+		renderer.setOutputDirectory(Paths.get(outputDirectoryOption.getValue()));
+		renderer.setFormats(formats);
+		renderer.setCompact(compactOption.getValue() != null);
+		renderer.setGzip(gzipOption.getValue() != null);
+		renderer.setShards(shardsOption.getValue() != null);
+		renderer.setMetrics(metrics);
+		
+		scanner.setParallelism(parallelism);
+		renderer.setParallelism(parallelism);
+		
+		if(streamingOption.getValue() != null) {
+			try {
+				renderer.renderStreaming(listener -> scanner.scan(environment, listener));
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		} else {
+			render(scanner.scan(environment), renderer);
+		}
+		
+		// -apiMetricsFile alone only writes the file
+		if(metricsOption.getValue() != null) {
+			metrics.report(reporter);
+		}
+		
+		if(metricsFileOption.getValue() != null) {
+			try {
+				metrics.write(Paths.get(metricsFileOption.getValue()));
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		
+		return true;
+	}
+	
+	private void render(APIDefinition api, OpenAPIRenderer renderer) {
+		if(snapshotOption.getValue() != null) {
+			try(AtomicFileOutputStream snapshot = new AtomicFileOutputStream(Paths.get(snapshotOption.getValue()))) {
+				SnapshotCodec.write(api, snapshot);
+				snapshot.commit();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
 		
 		try {
-			new JsonOutputFormatter(api).output(new FileOutputStream(Paths.get(outputDirectoryOption.getValue(), "openapi.json").toFile()));
+			renderer.render(api);
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
-		
-		return true;
 	}
 	
 	private class SimpleOption implements Option {
@@ -120,7 +220,7 @@ public class OpenAPIDoclet implements Doclet  {
 
 		@Override
 		public boolean process(String option, List<String> arguments) {
-			this.value = arguments.get(0);
+			this.value = arguments.isEmpty() ? Boolean.TRUE.toString() : arguments.get(0);
 			return true;
 		}
 	}
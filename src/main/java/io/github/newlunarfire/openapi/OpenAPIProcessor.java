@@ -0,0 +1,205 @@
+package io.github.newlunarfire.openapi;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import com.sun.source.util.DocTreePath;
+import com.sun.source.util.DocTrees;
+
+import io.github.newlunarfire.openapi.defs.APIDefinition;
+import io.github.newlunarfire.openapi.output.JsonOutputFormatter;
+import io.github.newlunarfire.openapi.output.MulticastOutputListener;
+import io.github.newlunarfire.openapi.output.OutputDirectory;
+import io.github.newlunarfire.openapi.output.OutputEmitter;
+import io.github.newlunarfire.openapi.output.OutputListener;
+import io.github.newlunarfire.openapi.output.YamlOutputFormatter;
+import jdk.javadoc.doclet.Reporter;
+
+/**
+ * Generates the document while the resources are compiled, without a separate javadoc pass.
+ * The document is written to the class output, next to the compiled classes.
+ */
+public class OpenAPIProcessor extends AbstractProcessor {
+	public static final String PACKAGES_OPTION = "openapi.packages";
+	public static final String TITLE_OPTION = "openapi.title";
+	public static final String VERSION_OPTION = "openapi.version";
+	public static final String SERVERS_OPTION = "openapi.servers";
+	public static final String FORMATS_OPTION = "openapi.formats";
+	public static final String COMPACT_OPTION = "openapi.compact";
+	public static final String ALL_OF_OPTION = "openapi.allOf";
+	
+	// Elements are only valid in their round, types are looked up again by name when the document is written
+	private final Set<String> typeNames = new LinkedHashSet<String>();
+	
+	@Override
+	public Set<String> getSupportedAnnotationTypes() {
+		// Doc comments of DTOs without any annotation are needed as well
+		return Set.of("*");
+	}
+	
+	@Override
+	public Set<String> getSupportedOptions() {
+		return Set.of(PACKAGES_OPTION, TITLE_OPTION, VERSION_OPTION, SERVERS_OPTION, FORMATS_OPTION, COMPACT_OPTION, ALL_OF_OPTION);
+	}
+	
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latest();
+	}
+	
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		for(TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements())) {
+			addType(type);
+		}
+		
+		if(roundEnv.processingOver()) {
+			generate();
+		}
+		
+		// Annotations are never claimed, other processors still see them
+		return false;
+	}
+	
+	private void addType(TypeElement type) {
+		typeNames.add(type.getQualifiedName().toString());
+		ElementFilter.typesIn(type.getEnclosedElements()).forEach(this::addType);
+	}
+	
+	private void generate() {
+		final Messager messager = processingEnv.getMessager();
+		final String packages = processingEnv.getOptions().get(PACKAGES_OPTION);
+		
+		// The processor is registered for every compilation that has it on its path, it only runs when configured
+		if(packages == null) {
+			return;
+		}
+		
+		final List<String> packageNames = List.of(packages.split(";"));
+		final List<String> uncompiled = uncompiledTypes(packageNames);
+		
+		if(!uncompiled.isEmpty()) {
+			messager.printMessage(Diagnostic.Kind.NOTE, "The OpenAPI document is left unchanged, only a full build can update it. Not compiled: " + String.join(", ", uncompiled));
+			return;
+		}
+		
+		final List<String> formats;
+		
+		try {
+			formats = OpenAPIRenderer.parseFormats(processingEnv.getOptions().get(FORMATS_OPTION));
+		} catch (IllegalArgumentException e) {
+			messager.printMessage(Diagnostic.Kind.ERROR, e.getMessage());
+			return;
+		}
+		
+		final List<Element> includedTypes = typeNames.stream()
+				.map(processingEnv.getElementUtils()::getTypeElement)
+				.filter(t -> t != null)
+				.collect(Collectors.toList());
+		
+		var scanner = new OpenAPIScanner();
+		scanner.setReporter(new MessagerReporter(messager));
+		scanner.setTitle(processingEnv.getOptions().get(TITLE_OPTION));
+		scanner.setVersion(processingEnv.getOptions().get(VERSION_OPTION));
+		scanner.setServers(processingEnv.getOptions().get(SERVERS_OPTION));
+		scanner.setPackages(packageNames);
+		scanner.setAllOf(isEnabled(ALL_OF_OPTION));
+		
+		APIDefinition api = scanner.scan(processingEnv.getElementUtils(), processingEnv.getTypeUtils(), DocTrees.instance(processingEnv), includedTypes);
+		write(api, formats, isEnabled(COMPACT_OPTION));
+	}
+	
+	/**
+	 * Returns the types of the resource packages that were not compiled in this run. An incremental compile, as done by
+	 * IDEs, only compiles some of the sources, and a document of those would be missing the other resources.
+	 */
+	private List<String> uncompiledTypes(List<String> packageNames) {
+		return packageNames.stream()
+				.map(processingEnv.getElementUtils()::getPackageElement)
+				.filter(p -> p != null)
+				.flatMap(p -> ElementFilter.typesIn(p.getEnclosedElements()).stream())
+				.map(t -> t.getQualifiedName().toString())
+				.filter(name -> !typeNames.contains(name))
+				.collect(Collectors.toList());
+	}
+	
+	/**
+	 * A flag is enabled by -Aname or -Aname=true, and disabled when absent or set to anything else.
+	 */
+	private boolean isEnabled(String option) {
+		if(!processingEnv.getOptions().containsKey(option)) {
+			return false;
+		}
+		
+		final String value = processingEnv.getOptions().get(option);
+		return value == null || Boolean.parseBoolean(value);
+	}
+	
+	private void write(APIDefinition api, List<String> formats, boolean compact) {
+		final List<OutputStream> streams = new ArrayList<OutputStream>();
+		final List<OutputListener> listeners = new ArrayList<OutputListener>();
+		
+		try {
+			for(String format : formats) {
+				FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", OutputDirectory.DOCUMENT_NAME + "." + format);
+				OutputStream out = file.openOutputStream();
+				streams.add(out);
+				listeners.add(OutputDirectory.FORMAT_YAML.equals(format) ? new YamlOutputFormatter(out) : new JsonOutputFormatter(out, compact));
+			}
+			
+			new OutputEmitter(api).emit(listeners.size() == 1 ? listeners.get(0) : new MulticastOutputListener(listeners));
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not write the OpenAPI document: " + e.getMessage());
+		} finally {
+			for(OutputStream out : streams) {
+				try {
+					out.close();
+				} catch (IOException e) {
+					processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not write the OpenAPI document: " + e.getMessage());
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Forwards the diagnostics of the scanner to the compiler.
+	 */
+	private static class MessagerReporter implements Reporter {
+		private final Messager messager;
+		
+		private MessagerReporter(Messager messager) {
+			this.messager = messager;
+		}
+		
+		@Override
+		public void print(Diagnostic.Kind kind, String msg) {
+			messager.printMessage(kind, msg);
+		}
+		
+		@Override
+		public void print(Diagnostic.Kind kind, DocTreePath path, String msg) {
+			messager.printMessage(kind, msg);
+		}
+		
+		@Override
+		public void print(Diagnostic.Kind kind, Element e, String msg) {
+			messager.printMessage(kind, msg, e);
+		}
+	}
+}
@@ -0,0 +1,246 @@
+package io.github.newlunarfire.openapi;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import io.github.newlunarfire.openapi.OpenAPIScanner.ResourceListener;
+import io.github.newlunarfire.openapi.defs.APIDefinition;
+import io.github.newlunarfire.openapi.defs.ResourceDefinition;
+import io.github.newlunarfire.openapi.output.OutputDirectory;
+import io.github.newlunarfire.openapi.output.OutputEmitter;
+import io.github.newlunarfire.openapi.output.OutputListener;
+import io.github.newlunarfire.openapi.snapshot.SnapshotCodec;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Writes an {@link APIDefinition} to the output directory. Run it on its own to render a snapshot written with -apiSnapshot,
+ * without running javadoc again.
+ */
+public class OpenAPIRenderer {
+	private static final String USAGE = "Usage: OpenAPIRenderer -snapshot <file> -d <directory> [-doctitle <title>] [-apiVersion <version>] [-apiServers <servers>]"
+			+ " [-apiFormats <formats>] [-apiCompact] [-apiGzip] [-apiShards] [-apiParallelism <threads>]";
+	
+	@Getter
+	@Setter
+	private Path outputDirectory;
+	
+	@Getter
+	@Setter
+	private List<String> formats = List.of(OutputDirectory.FORMAT_JSON);
+	
+	@Getter
+	@Setter
+	private boolean compact = false;
+	
+	@Getter
+	@Setter
+	private boolean gzip = false;
+	
+	@Getter
+	@Setter
+	private boolean shards = false;
+	
+	@Getter
+	@Setter
+	private int parallelism = 1;
+	
+	@Getter
+	@Setter
+	private Metrics metrics = Metrics.disabled();
+	
+	public static List<String> parseFormats(String formats) {
+		List<String> parsed = List.of(formats == null ? new String[] { OutputDirectory.FORMAT_JSON } : formats.split(","));
+		
+		for(String format : parsed) {
+			if(!OutputDirectory.FORMAT_JSON.equals(format) && !OutputDirectory.FORMAT_YAML.equals(format)) {
+				throw new IllegalArgumentException("Unknown output format " + format + ", expected " + OutputDirectory.FORMAT_JSON + " or " + OutputDirectory.FORMAT_YAML);
+			}
+		}
+		
+		return parsed;
+	}
+	
+	/**
+	 * Parses the value of -apiParallelism, 1 when it is not given.
+	 */
+	public static int parseParallelism(String parallelism) {
+		if(parallelism == null) {
+			return 1;
+		}
+		
+		int parsed;
+		
+		try {
+			parsed = Integer.parseInt(parallelism);
+		} catch (NumberFormatException e) {
+			parsed = 0;
+		}
+		
+		if(parsed < 1) {
+			throw new IllegalArgumentException("-apiParallelism must be a positive number of threads, not " + parallelism);
+		}
+		
+		return parsed;
+	}
+	
+	public void render(APIDefinition api) throws IOException {
+		OutputEmitter emitter = new OutputEmitter(api);
+		emitter.setParallelism(parallelism);
+		
+		try(OutputDirectory output = new OutputDirectory(outputDirectory, formats)) {
+			output.setCompact(compact);
+			output.setGzip(gzip);
+			output.setStreamWrapper(out -> metrics.measure(Metrics.WRITE_PHASE, out));
+			
+			try(var timer = metrics.time(Metrics.RENDER_PHASE)) {
+				if(shards) {
+					emitter.emitSharded(output);
+				} else {
+					emitter.emit(output.open(OutputDirectory.DOCUMENT_NAME));
+					output.commit();
+				}
+				
+				metrics.items(Metrics.RENDER_PHASE, api.getResources().stream().mapToInt(r -> r.getMethods().size()).sum());
+			}
+			
+			metrics.count("output.filesChanged", output.getChanged());
+		}
+	}
+	
+	/**
+	 * Renders the resources while they are scanned by a streaming scan, see {@link ResourceListener}.
+	 * Sharded output needs every resource before it can be written, so it is not supported.
+	 */
+	public APIDefinition renderStreaming(StreamingScan scan) throws IOException {
+		try(OutputDirectory output = new OutputDirectory(outputDirectory, formats)) {
+			output.setCompact(compact);
+			output.setGzip(gzip);
+			output.setStreamWrapper(out -> metrics.measure(Metrics.WRITE_PHASE, out));
+			
+			final OutputListener listener = output.open(OutputDirectory.DOCUMENT_NAME);
+			final APIDefinition api = scan.scan(new ResourceListener() {
+				private OutputEmitter emitter;
+				
+				@Override
+				public void begin(APIDefinition api) throws IOException {
+					emitter = new OutputEmitter(api);
+					emitter.setParallelism(parallelism);
+					
+					try(var timer = metrics.time(Metrics.RENDER_PHASE)) {
+						emitter.beginDocument(listener);
+					}
+				}
+				
+				@Override
+				public void resources(List<ResourceDefinition> resources) throws IOException {
+					try(var timer = metrics.time(Metrics.RENDER_PHASE)) {
+						emitter.writeResources(listener, resources);
+						metrics.items(Metrics.RENDER_PHASE, resources.stream().mapToInt(r -> r.getMethods().size()).sum());
+					}
+				}
+				
+				@Override
+				public void end(APIDefinition api) throws IOException {
+					try(var timer = metrics.time(Metrics.RENDER_PHASE)) {
+						emitter.endDocument(listener);
+					}
+				}
+			});
+			
+			output.commit();
+			metrics.count("output.filesChanged", output.getChanged());
+			return api;
+		}
+	}
+	
+	public static void main(String[] args) {
+		OpenAPIRenderer renderer = new OpenAPIRenderer();
+		Path snapshot = null;
+		String title = null;
+		String version = null;
+		String servers = null;
+		
+		try {
+			for(int i = 0; i < args.length; i++) {
+				switch(args[i]) {
+					case "-snapshot":
+						snapshot = Paths.get(args[++i]);
+						break;
+					case "-d":
+						renderer.setOutputDirectory(Paths.get(args[++i]));
+						break;
+					case "-doctitle":
+						title = args[++i];
+						break;
+					case "-apiVersion":
+						version = args[++i];
+						break;
+					case "-apiServers":
+						servers = args[++i];
+						break;
+					case "-apiFormats":
+						renderer.setFormats(parseFormats(args[++i]));
+						break;
+					case "-apiCompact":
+						renderer.setCompact(true);
+						break;
+					case "-apiGzip":
+						renderer.setGzip(true);
+						break;
+					case "-apiShards":
+						renderer.setShards(true);
+						break;
+					case "-apiParallelism":
+						renderer.setParallelism(parseParallelism(args[++i]));
+						break;
+					default:
+						throw new IllegalArgumentException("Unknown option " + args[i]);
+				}
+			}
+		} catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+			System.err.println(e instanceof ArrayIndexOutOfBoundsException ? "Missing value for " + args[args.length - 1] : e.getMessage());
+			System.err.println(USAGE);
+			System.exit(1);
+		}
+		
+		if(snapshot == null || renderer.getOutputDirectory() == null) {
+			System.err.println(USAGE);
+			System.exit(1);
+		}
+		
+		try {
+			APIDefinition api;
+			
+			try(InputStream in = Files.newInputStream(snapshot)) {
+				api = SnapshotCodec.read(in);
+			}
+			
+			// Titles and servers usually change per environment, they override the scanned values
+			if(title != null) {
+				api.setTitle(title);
+			}
+			
+			if(version != null) {
+				api.setVersion(version);
+			}
+			
+			if(servers != null) {
+				api.setServers(servers);
+			}
+			
+			renderer.render(api);
+		} catch (IOException e) {
+			e.printStackTrace();
+			System.exit(1);
+		}
+	}
+	
+	public interface StreamingScan {
+		APIDefinition scan(ResourceListener listener) throws IOException;
+	}
+}
@@ -1,22 +1,41 @@
 package io.github.newlunarfire.openapi;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
-import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
+import javax.lang.model.type.WildcardType;
 import javax.lang.model.util.ElementFilter;
 import javax.lang.model.util.Elements;
 import javax.lang.model.util.SimpleTypeVisitor9;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
 
 import com.sun.source.doctree.DocCommentTree;
 import com.sun.source.doctree.ParamTree;
@@ -24,6 +43,8 @@ import com.sun.source.doctree.UnknownBlockTagTree;
 import com.sun.source.util.DocTrees;
 import com.sun.source.util.SimpleDocTreeVisitor;
 
+import io.github.newlunarfire.openapi.DocComments.Comment;
+import io.github.newlunarfire.openapi.cache.ResourceCache;
 import io.github.newlunarfire.openapi.defs.APIDefinition;
 import io.github.newlunarfire.openapi.defs.MethodDefinition;
 import io.github.newlunarfire.openapi.defs.ResourceDefinition;
@@ -31,13 +52,36 @@ import io.github.newlunarfire.openapi.defs.type.TypeDefinition;
 import io.github.newlunarfire.openapi.defs.type.ClassDefinition;
 import io.github.newlunarfire.openapi.defs.type.EnumDefinition;
 import io.github.newlunarfire.openapi.defs.type.ListDefinition;
+import io.github.newlunarfire.openapi.defs.type.MapDefinition;
+import io.github.newlunarfire.openapi.defs.type.MutableTypeDefinition;
 import io.github.newlunarfire.openapi.defs.type.PrimitiveDefinition;
+import io.github.newlunarfire.openapi.defs.type.ReferenceDefinition;
+import io.github.newlunarfire.openapi.output.PathTrie;
 import jdk.javadoc.doclet.DocletEnvironment;
+import jdk.javadoc.doclet.Reporter;
 
 import lombok.Getter;
 import lombok.Setter;
 
 public class OpenAPIScanner {
+	private static final Map<String, String> BOXED_TYPES = Map.of(
+		"java.lang.Boolean", "boolean",
+		"java.lang.Byte", "byte",
+		"java.lang.Short", "short",
+		"java.lang.Integer", "int",
+		"java.lang.Long", "long",
+		"java.lang.Character", "char",
+		"java.lang.Float", "float",
+		"java.lang.Double", "double"
+	);
+	private static final Map<String, String> OPTIONAL_PRIMITIVE_TYPES = Map.of(
+		"java.util.OptionalInt", "int",
+		"java.util.OptionalLong", "long",
+		"java.util.OptionalDouble", "double"
+	);
+	// Types that only wrap the value of their first type argument
+	private static final List<String> WRAPPER_TYPES = List.of("java.util.Optional", "java.util.concurrent.CompletionStage", "java.util.concurrent.Future");
+	
 	@Getter
 	@Setter
 	private String title;
@@ -54,39 +98,309 @@ public class OpenAPIScanner {
 	@Setter
 	private List<String> packages;
 	
-	private HashMap<String, TypeElement> typeElements = new HashMap<String, TypeElement>();
+	@Getter
+	@Setter
+	private Path cacheDirectory;
+	
+	@Getter
+	@Setter
+	private Metrics metrics = Metrics.disabled();
+	
+	@Getter
+	@Setter
+	private Reporter reporter;
+	
+	// Document subclasses as allOf their superclass schema and their own fields, instead of copying inherited fields
+	@Getter
+	@Setter
+	private boolean allOf = false;
+	
+	// Threads rendering the doc comments once the element model has been read
+	@Getter
+	@Setter
+	private int parallelism = 1;
+	
+	private TypeResolver typeResolver;
+	private TypeRegistry registry = new TypeRegistry();
+	private ResourceCache cache;
+	private AnnotationIndex annotations;
+	private TypeElement pathAnnotation;
+	private TypeElement producesAnnotation;
+	private TypeElement consumesAnnotation;
+	private TypeElement pathParamAnnotation;
 	private DocTrees docTrees; 
+	private DocComments docComments;
+	private int scanTypeDepth = 0;
+	private Types types;
+	private TypeElement objectType;
+	private TypeElement collectionType;
+	private TypeElement setType;
+	private TypeElement mapType;
+	private List<TypeElement> wrapperTypes;
+	private final Map<TypeElement, Members> members = new HashMap<TypeElement, Members>();
+	private int memberHits = 0;
+	// @returnType names of the resource being scanned that did not resolve to a type
+	private Set<String> unresolvedTypes = new LinkedHashSet<String>();
+	// Work left for the transform stage, it no longer needs javac
+	private List<Runnable> transforms = new ArrayList<Runnable>();
+	private ForkJoinPool pool;
 	
 	public APIDefinition scan(DocletEnvironment environment) {
-		Elements eUtils = environment.getElementUtils();
-		this.docTrees = environment.getDocTrees();
+		return scan(environment.getElementUtils(), environment.getTypeUtils(), environment.getDocTrees(), environment.getIncludedElements());
+	}
+	
+	/**
+	 * Scans the included types of the given packages. Used by the doclet and by {@link OpenAPIProcessor} during compilation.
+	 */
+	public APIDefinition scan(Elements eUtils, Types types, DocTrees docTrees, Collection<? extends Element> includedElements) {
+		final List<TypeElement> resourceTypes = prepare(eUtils, types, docTrees, includedElements);
+		final APIDefinition api = createDefinition();
+		
+		routes(resourceTypes);
+		api.setResources(scanResources(resourceTypes));
+		
+		return complete(api);
+	}
+	
+	public APIDefinition scan(DocletEnvironment environment, ResourceListener listener) throws IOException {
+		return scan(environment.getElementUtils(), environment.getTypeUtils(), environment.getDocTrees(), environment.getIncludedElements(), listener);
+	}
+	
+	/**
+	 * Hands the resources to the listener as soon as they are scanned instead of collecting them, so only the schemas
+	 * are kept until the end. The returned definition has no resources.
+	 */
+	public APIDefinition scan(Elements eUtils, Types types, DocTrees docTrees, Collection<? extends Element> includedElements, ResourceListener listener) throws IOException {
+		final List<TypeElement> resourceTypes = prepare(eUtils, types, docTrees, includedElements);
+		final APIDefinition api = createDefinition();
+		api.setResources(List.of());
 		
-		for(var t : ElementFilter.typesIn(environment.getIncludedElements())) {
-			typeElements.put(t.getSimpleName().toString(), t);
+		listener.begin(api);
+		
+		for(List<TypeElement> group : groupBySharedPaths(resourceTypes, routes(resourceTypes))) {
+			listener.resources(scanResources(group));
+			// Every element of the group has been scanned, their descriptions are not needed again
+			docComments.clear();
 		}
 		
+		listener.end(complete(api));
+		return api;
+	}
+	
+	private List<TypeElement> prepare(Elements eUtils, Types types, DocTrees docTrees, Collection<? extends Element> includedElements) {
+		this.types = types;
+		this.docTrees = docTrees;
+		this.docComments = new DocComments(docTrees, metrics);
+		
+		final List<TypeElement> resourceTypes;
+		
+		try(var timer = metrics.time(Metrics.FILTER_PHASE)) {
+			final List<TypeElement> includedTypes = ElementFilter.typesIn(List.copyOf(includedElements));
+			this.typeResolver = new TypeResolver(eUtils, this.docTrees, this.reporter, includedTypes);
+			
+			resourceTypes = includedTypes.stream()
+					.filter(t -> this.packages.contains(eUtils.getPackageOf(t).getQualifiedName().toString()))
+					.sorted(Comparator.comparing(t -> t.getQualifiedName().toString()))
+					.collect(Collectors.toList());
+			
+			metrics.items(Metrics.FILTER_PHASE, resourceTypes.size());
+		}
+		
+		this.pathAnnotation = eUtils.getTypeElement(Constants.OPENAPIDOCLET_PATH_ANNOTATION);
+		this.producesAnnotation = eUtils.getTypeElement(Constants.OPENAPIDOCLET_PRODUCES_ANNOTATION);
+		this.consumesAnnotation = eUtils.getTypeElement(Constants.OPENAPIDOCLET_CONSUMES_ANNOTATION);
+		this.pathParamAnnotation = eUtils.getTypeElement(Constants.OPENAPIDOCLET_PATHPARAM_ANNOTATION);
+		this.objectType = eUtils.getTypeElement("java.lang.Object");
+		this.collectionType = eUtils.getTypeElement("java.util.Collection");
+		this.setType = eUtils.getTypeElement("java.util.Set");
+		this.mapType = eUtils.getTypeElement("java.util.Map");
+		this.wrapperTypes = WRAPPER_TYPES.stream()
+				.map(eUtils::getTypeElement)
+				.filter(t -> t != null)
+				.collect(Collectors.toList());
+		this.annotations = new AnnotationIndex(eUtils, metrics);
+		this.annotations.index(resourceTypes);
+		
+		if(this.parallelism > 1) {
+			this.pool = new ForkJoinPool(this.parallelism);
+		}
+		
+		if(this.cacheDirectory != null) {
+			this.cache = new ResourceCache(this.cacheDirectory, eUtils, this.docTrees, this.reporter, String.join(";", this.packages) + (allOf ? ";allOf" : ""));
+		}
+		
+		return resourceTypes;
+	}
+	
+	private APIDefinition createDefinition() {
 		APIDefinition api = new APIDefinition();
 		api.setTitle(this.title);
 		api.setVersion(this.version);
 		api.setServers(this.servers);
+		return api;
+	}
+	
+	private APIDefinition complete(APIDefinition api) {
+		api.getSchemas().putAll(registry.getSchemas());
 		
-		api.setResources(
-			ElementFilter.typesIn(environment.getIncludedElements())
-				.stream()
-				.filter(t -> this.packages.contains(eUtils.getPackageOf(t).getQualifiedName().toString()))
-				.map(this::scanResource)
-				.collect(Collectors.toList())
-		);
+		if(pool != null) {
+			pool.shutdown();
+			pool = null;
+		}
+		
+		metrics.count("scanType.cacheHits", registry.getHits());
+		metrics.count("scanType.cycles", registry.getCycles());
+		metrics.count("schemas", registry.getSchemas().size());
+		metrics.count("docComments.cacheHits", docComments.getHits());
+		metrics.count("members.cacheHits", memberHits);
+		
+		if(cache != null) {
+			metrics.count("resourceCache.hits", cache.getHits());
+			metrics.count("resourceCache.misses", cache.getMisses());
+		}
 		
 		return api;
 	}
 	
+	/**
+	 * Returns the indexes of the resources declaring each path, as written in the document, and reports duplicate
+	 * and ambiguous routes.
+	 */
+	private Map<String, List<Integer>> routes(List<TypeElement> resourceTypes) {
+		final PathTrie<Integer> routes = new PathTrie<Integer>();
+		// Every resource declaring a path, including those whose operation is left out of the trie as a duplicate
+		final Map<String, List<Integer>> owners = new LinkedHashMap<String, List<Integer>>();
+		
+		for(int i = 0; i < resourceTypes.size(); i++) {
+			final TypeElement t = resourceTypes.get(i);
+			final String basePath = annotations.getValue(t, pathAnnotation);
+			
+			for(var e : ElementFilter.methodsIn(t.getEnclosedElements())) {
+				final Optional<String> verb = annotations.getVerb(e);
+				
+				if(verb.isPresent()) {
+					final String path = routes.add(basePath, annotations.has(e, pathAnnotation) ? annotations.getValue(e, pathAnnotation) : null, verb.get(), i);
+					owners.computeIfAbsent(path, p -> new ArrayList<Integer>()).add(i);
+				}
+			}
+		}
+		
+		if(reporter != null) {
+			routes.getConflicts().forEach(conflict -> reporter.print(Diagnostic.Kind.WARNING, conflict));
+		}
+		
+		return owners;
+	}
+	
+	/**
+	 * Groups the resources that declare the same path, in the order of their first resource. The operations of a path
+	 * are written together, so these resources have to be handed to the listener at the same time.
+	 */
+	private List<List<TypeElement>> groupBySharedPaths(List<TypeElement> resourceTypes, Map<String, List<Integer>> routes) {
+		final int[] groups = new int[resourceTypes.size()];
+		
+		for(int i = 0; i < resourceTypes.size(); i++) {
+			groups[i] = i;
+		}
+		
+		for(List<Integer> owners : routes.values()) {
+			for(Integer owner : owners) {
+				merge(groups, owners.get(0), owner);
+			}
+		}
+		
+		final Map<Integer, List<TypeElement>> grouped = new LinkedHashMap<Integer, List<TypeElement>>();
+		
+		for(int i = 0; i < resourceTypes.size(); i++) {
+			grouped.computeIfAbsent(root(groups, i), g -> new ArrayList<TypeElement>()).add(resourceTypes.get(i));
+		}
+		
+		return new ArrayList<List<TypeElement>>(grouped.values());
+	}
+	
+	private static void merge(int[] groups, int a, int b) {
+		final int rootA = root(groups, a);
+		final int rootB = root(groups, b);
+		
+		// The earliest resource stays the root, so groups keep the order of the resources
+		groups[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+	}
+	
+	private static int root(int[] groups, int i) {
+		while(groups[i] != i) {
+			groups[i] = groups[groups[i]];
+			i = groups[i];
+		}
+		
+		return i;
+	}
+	
+	/**
+	 * Scans resources in two stages. The element model is read on this thread, as javac is not thread-safe, leaving
+	 * the doc comments to render. They are then rendered to CommonMark on {@link #parallelism} threads.
+	 */
+	private List<ResourceDefinition> scanResources(List<TypeElement> resourceTypes) {
+		final List<ResourceDefinition> resources = new ArrayList<ResourceDefinition>();
+		final List<Runnable> stores = new ArrayList<Runnable>();
+		
+		for(TypeElement t : resourceTypes) {
+			final Optional<ResourceDefinition> cached = cache == null ? Optional.empty() : cache.load(t, registry);
+			
+			if(cached.isPresent()) {
+				resources.add(cached.get());
+				continue;
+			}
+			
+			registry.beginRoot();
+			unresolvedTypes = new LinkedHashSet<String>();
+			final ResourceDefinition resource = extractResource(t);
+			final Set<String> reached = registry.endRoot();
+			final Set<String> unresolved = unresolvedTypes;
+			resources.add(resource);
+			
+			if(cache != null) {
+				// Stored with the descriptions, once they are rendered
+				stores.add(() -> cache.store(t, resource, reached, unresolved, registry));
+			}
+		}
+		
+		transform();
+		stores.forEach(Runnable::run);
+		return resources;
+	}
+	
+	private void transform() {
+		final List<Runnable> pending = transforms;
+		transforms = new ArrayList<Runnable>();
+		
+		try(var timer = metrics.time(Metrics.TRANSFORM_PHASE)) {
+			metrics.items(Metrics.TRANSFORM_PHASE, pending.size());
+			
+			if(pool == null) {
+				pending.forEach(Runnable::run);
+				return;
+			}
+			
+			pool.submit(() -> pending.parallelStream().forEach(Runnable::run)).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while rendering doc comments", e);
+		} catch (ExecutionException e) {
+			throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new IllegalStateException(e.getCause());
+		}
+	}
+	
 	public ResourceDefinition scanResource(TypeElement t) {
+		final ResourceDefinition resource = extractResource(t);
+		transform();
+		return resource;
+	}
+	
+	private ResourceDefinition extractResource(TypeElement t) {
 		ResourceDefinition resource = new ResourceDefinition();
 		
-		HashMap<String, String> annotationValues = mapWithValues(t.getAnnotationMirrors());
-		resource.setBasePath(annotationValues.get(Constants.OPENAPIDOCLET_PATH_ANNOTATION));
-
+		resource.setBasePath(annotations.getValue(t, pathAnnotation));
+		
 		resource.setMethods(
 			t.getEnclosedElements().stream()
 				.filter(e -> (e instanceof ExecutableElement))
@@ -100,64 +414,49 @@ public class OpenAPIScanner {
 	}
 	
 	public DocCommentTree getDocTree(Element e) {
-		return docTrees.getDocCommentTree(e);
-	}
-	
-	private HashMap<String, String> mapWithValues(List<? extends AnnotationMirror> list) {
-		HashMap<String, String> annotationValues = new HashMap<String, String>();
-
-		for(AnnotationMirror annotation : list) {
-			annotationValues.put(annotation.getAnnotationType().toString(), getAnnotationValue(annotation));
-		}
-
-		return annotationValues;
-	}
-
-	private String getAnnotationValue(AnnotationMirror annotation) {
-		return annotation.getElementValues().keySet().stream()
-				.filter(ex -> ex.getSimpleName().toString().equals("value"))
-				.map(ex -> (String) annotation.getElementValues().get(ex).getValue().toString())
-				.findFirst()
-				.orElse(null);
+		return docComments.getTree(e);
 	}
 	
 	private Optional<MethodDefinition> scanMethod(ExecutableElement e) {
-		final MethodDefinition definition = new MethodDefinition();
-		final DocCommentTree docCommentTree = docTrees.getDocCommentTree(e);
-		
-		HashMap<String, String> annotationValues = mapWithValues(e.getAnnotationMirrors());
-		
-		for(String methodVerb: Constants.OPENAPIDOCLET_METHOD_VERBS) {
-			if(annotationValues.containsKey(Constants.OPENAPIDOCLET_JAVAWSRS_PACKAGE + "." + methodVerb)) {
-				definition.setVerb(methodVerb);
-			}
-		}
+		final Optional<String> verb = annotations.getVerb(e);
 		
 		// Needs to have at least one "verb" annotation
-		if(definition.getVerb() == null) {
+		if(verb.isEmpty()) {
 			return Optional.empty();
 		}
 		
+		final MethodDefinition definition = new MethodDefinition();
+		final DocCommentTree docCommentTree = getDocTree(e);
+		
+		definition.setVerb(verb.get());
+		
 		// Scan parameters
 		for(var param : e.getParameters()) {
 			scanParameter(definition, param);
 		}
 		
-		if(annotationValues.containsKey(Constants.OPENAPIDOCLET_PATH_ANNOTATION)) {
-			definition.setPath(annotationValues.get(Constants.OPENAPIDOCLET_PATH_ANNOTATION));
+		if(annotations.has(e, pathAnnotation)) {
+			definition.setPath(annotations.getValue(e, pathAnnotation));
 		}
 		
-		if(annotationValues.containsKey(Constants.OPENAPIDOCLET_PRODUCES_ANNOTATION)) {
-			definition.setProduces(annotationValues.get(Constants.OPENAPIDOCLET_PRODUCES_ANNOTATION));
+		if(annotations.has(e, producesAnnotation)) {
+			definition.setProduces(annotations.getValue(e, producesAnnotation));
 		}
 		
-		if(annotationValues.containsKey(Constants.OPENAPIDOCLET_CONSUMES_ANNOTATION)) {
-			definition.setConsumes(annotationValues.get(Constants.OPENAPIDOCLET_CONSUMES_ANNOTATION));
+		if(annotations.has(e, consumesAnnotation)) {
+			definition.setConsumes(annotations.getValue(e, consumesAnnotation));
 		}
 		
 		if (docCommentTree != null) {
-			definition.setBody(docCommentTree.getFullBody().toString());
-			definition.setBlockTags(docCommentTree.getBlockTags().toString());
+			final Comment body = docComments.getComment(e);
+			final Map<String, Comment> parameters = new LinkedHashMap<String, Comment>();
+			
+			// A single task per method, the maps of a definition are not thread-safe
+			transforms.add(() -> {
+				definition.setBody(body.getMarkdown());
+				definition.setBlockTags(docCommentTree.getBlockTags().toString());
+				parameters.forEach((name, description) -> definition.addPathParameterDescription(name, description.getMarkdown()));
+			});
 			
 			for(var block : docCommentTree.getBlockTags()) {
 				block.accept(new SimpleDocTreeVisitor<Void, OpenAPIScanner>() {
@@ -168,10 +467,16 @@ public class OpenAPIScanner {
 							TypeDefinition td = null;
 							
 							if(type.endsWith(".class")) {
-								TypeElement te = typeElements.get(type.replace(".class", ""));
+								Optional<TypeElement> te = typeResolver.resolve(type.substring(0, type.length() - ".class".length()), e);
 								
-								if(te != null) {
-									td = scanType(te);
+								if(te.isPresent()) {
+									td = scanType(te.get().asType());
+								} else {
+									unresolvedTypes.add(type);
+									
+									if(reporter != null) {
+										reporter.print(Diagnostic.Kind.WARNING, e, "@returnType " + type + " could not be resolved");
+									}
 								}
 							}
 							
@@ -183,7 +488,7 @@ public class OpenAPIScanner {
 					
 					@Override
 					public Void visitParam(ParamTree node, OpenAPIScanner p) {
-						definition.getPathParameterDescriptions().put(node.getName().toString(), node.getDescription().toString());
+						parameters.put(node.getName().toString(), docComments.getComment(e, node.getDescription()));
 				        return null;
 				    }
 				}, this);
@@ -194,87 +499,348 @@ public class OpenAPIScanner {
 	}
 	
 	private TypeDefinition scanType(Element e) {
-		final DocCommentTree docCommentTree = docTrees.getDocCommentTree(e);
-		final TypeDefinition td = scanType(e.asType());
+		return scanType(e, e.asType());
+	}
+	
+	private TypeDefinition scanType(Element e, TypeMirror type) {
+		return describe(scanType(type), e);
+	}
+	
+	private TypeDefinition describe(TypeDefinition td, Element e) {
+		final Comment comment = docComments.getComment(e);
+		
+		if(comment == null || td == null) {
+			return td;
+		}
 		
-		if(docCommentTree != null) {
-			td.setDescription(docCommentTree.getFullBody().toString());
+		// Primitives cannot be changed, a documented one is rendered right away
+		if(td instanceof PrimitiveDefinition) {
+			return ((PrimitiveDefinition) td).withDescription(comment.getMarkdown());
 		}
 		
-		return td;
+		final MutableTypeDefinition described = (MutableTypeDefinition) td;
+		transforms.add(() -> described.setDescription(comment.getMarkdown()));
+		return described;
 	}
 	
 	private TypeDefinition scanType(TypeMirror type) {
+		metrics.items(Metrics.SCAN_TYPE_PHASE, 1);
+		metrics.max("scanType.maxDepth", ++scanTypeDepth);
+		
+		try {
+			// Nested calls are already accounted for by the outermost one
+			if(scanTypeDepth > 1) {
+				return visitType(type);
+			}
+			
+			try(var timer = metrics.time(Metrics.SCAN_TYPE_PHASE)) {
+				return visitType(type);
+			}
+		} finally {
+			scanTypeDepth--;
+		}
+	}
+	
+	private TypeDefinition visitType(TypeMirror type) {
 		if("java.lang.String".equals(type.toString())) {
-			final PrimitiveDefinition pDef = new PrimitiveDefinition();
-			pDef.setType("string");
-			return pDef;
+			return primitive("string");
 		}
 		
 		return type.accept(new SimpleTypeVisitor9<TypeDefinition, Void>()  {
 			@Override
 			public TypeDefinition visitDeclared(DeclaredType t, Void p) {
-				if(type.toString().startsWith("java.util.List")) {
-					return visitList(t, p);
+				final TypeElement te = (TypeElement) t.asElement();
+				final String qualifiedName = te.getQualifiedName().toString();
+				
+				if(BOXED_TYPES.containsKey(qualifiedName)) {
+					return primitive(BOXED_TYPES.get(qualifiedName));
+				} else if(OPTIONAL_PRIMITIVE_TYPES.containsKey(qualifiedName)) {
+					return primitive(OPTIONAL_PRIMITIVE_TYPES.get(qualifiedName));
+				}
+				
+				// Wrappers are documented as the value they hold
+				for(TypeElement wrapper : wrapperTypes) {
+					if(isSubtype(t, wrapper)) {
+						return scanType(typeArgument(t, wrapper));
+					}
+				}
+				
+				if(isSubtype(t, mapType)) {
+					final MapDefinition mDef = new MapDefinition();
+					mDef.setValueType(scanType(typeArgument(t, mapType, 1)));
+					return mDef;
+				} else if(isSubtype(t, collectionType)) {
+					final ListDefinition lDef = new ListDefinition();
+					lDef.setSubType(scanType(typeArgument(t, collectionType)));
+					lDef.setUniqueItems(isSubtype(t, setType));
+					return lDef;
+				} else if("java.lang.Object".equals(qualifiedName)) {
+					return new ClassDefinition();
 				}
 				
-				final Element e = t.asElement();
-				final boolean isEnum = e.getEnclosedElements().stream()
+				final boolean isEnum = te.getEnclosedElements().stream()
 						.filter(el -> el.getKind() == ElementKind.ENUM_CONSTANT)
 						.findAny()
 						.isPresent();
 				
-				if(isEnum) {
-					return visitEnum(t, p);
-				}
+				// Each instantiation of a generic type is a schema of its own, raw uses are the plain type
+				final DeclaredType instance = concrete(t);
+				final boolean generic = !instance.getTypeArguments().isEmpty();
+				final String key = generic ? typeKey(instance) : qualifiedName;
+				final String name = generic ? schemaName(instance) : te.getSimpleName().toString();
 				
+				return registry.resolve(key, name, () -> {
+					final TypeDefinition td = isEnum ? visitEnum(instance, p) : visitClass(instance, p);
+					describe(td, te);
+					return td;
+				});
+		 	}
+			
+			public TypeDefinition visitClass(DeclaredType t, Void p) {
 				final ClassDefinition classDef = new ClassDefinition();
+				final TypeElement te = (TypeElement) t.asElement();
+				final Members members = getMembers(te);
+				List<VariableElement> fields = members.fields;
 				
-				for(var el : e.getEnclosedElements()) {
-					if(el.getKind() == ElementKind.FIELD) {
-						classDef.getChildren().put(el.getSimpleName().toString(), scanType(el));
+				if(allOf && members.superclass != null) {
+					// The superclass of a class comes first in its direct supertypes
+					final TypeDefinition parent = scanType(types.directSupertypes(t).get(0));
+					
+					if(parent instanceof ReferenceDefinition) {
+						classDef.setParent(parent);
+						fields = members.declaredFields;
 					}
 				}
 				
+				if(fields == members.fields) {
+					// Inherited fields are part of this schema, so it changes with the sources of the superclasses
+					members.superclasses.forEach(registry::dependOn);
+				}
+				
+				classDef.setChildren(new LinkedHashMap<String, TypeDefinition>(capacity(fields.size())));
+				
+				for(VariableElement field : fields) {
+					// Type variables of the field are replaced by the type arguments of this instance
+					classDef.getChildren().put(field.getSimpleName().toString(), scanType(field, types.asMemberOf(t, field)));
+				}
+		
 		 		return classDef;
-		 	}
-		 	
+			}
+			
 			@Override
 			public TypeDefinition visitPrimitive(PrimitiveType t, Void p) {
-				final PrimitiveDefinition pDef = new PrimitiveDefinition();
-				pDef.setType(t.toString());
-				
-				return pDef;
+				return primitive(t.toString());
 		 	}
 			
-			public TypeDefinition visitList(DeclaredType t, Void p) {
+			@Override
+			public TypeDefinition visitArray(ArrayType t, Void p) {
+				if(t.getComponentType().getKind() == TypeKind.BYTE) {
+					return primitive("byte[]");
+				}
+				
 				final ListDefinition lDef = new ListDefinition();
-				lDef.setSubType(scanType(t.getTypeArguments().get(0)));
+				lDef.setSubType(scanType(t.getComponentType()));
 				return lDef;
 			}
 			
+			@Override
+			public TypeDefinition visitTypeVariable(TypeVariable t, Void p) {
+				// Only left when the type is used raw, its bound is all that is known
+				return scanType(types.erasure(t));
+			}
+			
+			@Override
+			public TypeDefinition visitWildcard(WildcardType t, Void p) {
+				return t.getExtendsBound() == null ? new ClassDefinition() : scanType(t.getExtendsBound());
+			}
+			
 			public TypeDefinition visitEnum(DeclaredType t, Void p) {
 				final EnumDefinition eDef = new EnumDefinition();
 				final List<Element> constants = t.asElement().getEnclosedElements().stream()
 					.filter(el -> el.getKind() == ElementKind.ENUM_CONSTANT)
 					.collect(Collectors.toList());
 				
+				final Map<String, Comment> descriptions = new LinkedHashMap<String, Comment>(capacity(constants.size()));
+				eDef.setValues(new LinkedHashMap<String, String>(capacity(constants.size())));
+				
 				for(Element constant: constants) {
-					String comment = Optional.ofNullable(docTrees.getDocCommentTree(constant))
-											.map(docTree -> docTree.getFullBody().toString())
-											.orElse(null);
-					
-					eDef.getValues().put(constant.toString(), comment);
+					eDef.getValues().put(constant.toString(), null);
+					descriptions.put(constant.toString(), docComments.getComment(constant));
 				}
 				
+				transforms.add(() -> descriptions.forEach((value, description) -> eDef.getValues().put(value, description == null ? null : description.getMarkdown())));
+				
 				return eDef;
 			}
 		}, null);
 	}
 	
+	/**
+	 * Returns the serialized fields of a class, superclass fields first. Static and transient fields are left out,
+	 * and a field hidden by a subclass field of the same name is replaced by it.
+	 */
+	private Members getMembers(TypeElement type) {
+		Members cached = members.get(type);
+		
+		if(cached != null) {
+			memberHits++;
+			return cached;
+		}
+		
+		final Members result = new Members();
+		final Map<String, VariableElement> fields = new LinkedHashMap<String, VariableElement>();
+		final TypeMirror superclass = type.getSuperclass();
+		
+		// JDK classes, starting with Object, only have implementation details as fields
+		if(superclass.getKind() == TypeKind.DECLARED) {
+			final TypeElement superElement = (TypeElement) ((DeclaredType) superclass).asElement();
+			
+			if(!superElement.getQualifiedName().toString().startsWith("java.")) {
+				final Members inherited = getMembers(superElement);
+				inherited.fields.forEach(field -> fields.put(field.getSimpleName().toString(), field));
+				result.superclass = superElement;
+				result.superclasses.add(superElement.getQualifiedName().toString());
+				result.superclasses.addAll(inherited.superclasses);
+			}
+		}
+		
+		for(VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+			if(!field.getModifiers().contains(Modifier.STATIC) && !field.getModifiers().contains(Modifier.TRANSIENT)) {
+				result.declaredFields.add(field);
+				fields.put(field.getSimpleName().toString(), field);
+			}
+		}
+		
+		result.fields.addAll(fields.values());
+		members.put(type, result);
+		return result;
+	}
+	
+	private static PrimitiveDefinition primitive(String type) {
+		return PrimitiveDefinition.of(type);
+	}
+	
+	// Initial capacity of a map that holds this many entries without being resized
+	private static int capacity(int size) {
+		return size * 4 / 3 + 1;
+	}
+	
+	private boolean isSubtype(DeclaredType t, TypeElement supertype) {
+		return supertype != null && types.isSubtype(types.erasure(t), types.erasure(supertype.asType()));
+	}
+	
+	private TypeMirror typeArgument(TypeMirror type, TypeElement supertype) {
+		return typeArgument(type, supertype, 0);
+	}
+	
+	/**
+	 * Returns a type argument of the given supertype as seen from the type, such as the element type of a subclass of List.
+	 */
+	private TypeMirror typeArgument(TypeMirror type, TypeElement supertype, int index) {
+		if(types.isSameType(types.erasure(type), types.erasure(supertype.asType()))) {
+			final List<? extends TypeMirror> arguments = ((DeclaredType) type).getTypeArguments();
+			return arguments.size() > index ? arguments.get(index) : objectType.asType();
+		}
+		
+		for(TypeMirror direct : types.directSupertypes(type)) {
+			if(types.isSubtype(types.erasure(direct), types.erasure(supertype.asType()))) {
+				return typeArgument(direct, supertype, index);
+			}
+		}
+		
+		return objectType.asType();
+	}
+	
+	/**
+	 * Replaces type variables and wildcards in the type arguments by their bounds. Types whose arguments all end up
+	 * as Object are returned raw.
+	 */
+	private DeclaredType concrete(DeclaredType t) {
+		if(t.getTypeArguments().isEmpty()) {
+			return t;
+		}
+		
+		final TypeMirror[] arguments = t.getTypeArguments().stream().map(this::concreteArgument).toArray(TypeMirror[]::new);
+		final TypeElement te = (TypeElement) t.asElement();
+		
+		if(Arrays.stream(arguments).allMatch(a -> types.isSameType(a, objectType.asType()))) {
+			return (DeclaredType) types.erasure(t);
+		}
+		
+		try {
+			return types.getDeclaredType(te, arguments);
+		} catch (IllegalArgumentException e) {
+			// Inner classes of generic types need their enclosing instance, keep them as they are
+			return t;
+		}
+	}
+	
+	private TypeMirror concreteArgument(TypeMirror argument) {
+		if(argument.getKind() == TypeKind.TYPEVAR) {
+			return types.erasure(argument);
+		} else if(argument.getKind() == TypeKind.WILDCARD) {
+			final TypeMirror bound = ((WildcardType) argument).getExtendsBound();
+			return bound == null ? objectType.asType() : concreteArgument(bound);
+		}
+		
+		return argument;
+	}
+	
+	/**
+	 * Identifies an instance of a generic type, such as test.Page&lt;test.Order&gt;. Unlike {@link TypeMirror#toString()},
+	 * it leaves out type annotations, which do not change the schema.
+	 */
+	private String typeKey(TypeMirror type) {
+		if(type.getKind() == TypeKind.ARRAY) {
+			return typeKey(((ArrayType) type).getComponentType()) + "[]";
+		} else if(type.getKind().isPrimitive()) {
+			return type.getKind().toString().toLowerCase(Locale.ROOT);
+		} else if(type.getKind() != TypeKind.DECLARED) {
+			return types.erasure(type).toString();
+		}
+		
+		final DeclaredType t = (DeclaredType) type;
+		final TypeElement te = (TypeElement) t.asElement();
+		final StringBuilder key = new StringBuilder();
+		
+		// Inner classes of generic types are kept with the type arguments of their enclosing instance
+		if(t.getEnclosingType().getKind() == TypeKind.DECLARED && !((DeclaredType) t.getEnclosingType()).getTypeArguments().isEmpty()) {
+			key.append(typeKey(t.getEnclosingType())).append('.').append(te.getSimpleName());
+		} else {
+			key.append(te.getQualifiedName());
+		}
+		
+		if(!t.getTypeArguments().isEmpty()) {
+			key.append(t.getTypeArguments().stream().map(this::typeKey).collect(Collectors.joining(",", "<", ">")));
+		}
+		
+		return key.toString();
+	}
+	
+	/**
+	 * Names an instance of a generic type after its type arguments, such as Page_Order for Page&lt;Order&gt;.
+	 */
+	private static String schemaName(TypeMirror type) {
+		if(type.getKind() == TypeKind.ARRAY) {
+			return schemaName(((ArrayType) type).getComponentType()) + "Array";
+		} else if(type.getKind().isPrimitive()) {
+			return type.getKind().toString().toLowerCase(Locale.ROOT);
+		} else if(type.getKind() != TypeKind.DECLARED) {
+			return type.toString();
+		}
+		
+		final DeclaredType t = (DeclaredType) type;
+		final StringBuilder name = new StringBuilder(t.asElement().getSimpleName());
+		
+		for(TypeMirror argument : t.getTypeArguments()) {
+			name.append('_').append(schemaName(argument));
+		}
+		
+		return name.toString();
+	}
+	
 	private void scanParameter(MethodDefinition definition, VariableElement e) {
-		HashMap<String, String> annotations = mapWithValues(e.getAnnotationMirrors());
-		final boolean isPathParam = annotations.containsKey(Constants.OPENAPIDOCLET_PATHPARAM_ANNOTATION);
+		final boolean isPathParam = annotations.has(e, pathParamAnnotation);
 		
 		TypeDefinition td = scanType(e);
 		
@@ -284,4 +850,32 @@ public class OpenAPIScanner {
 			definition.setRequestBody(td);
 		}
 	}
+	
+	/**
+	 * Receives the resources of a streaming scan.
+	 */
+	public interface ResourceListener {
+		/**
+		 * Called before the first resource is scanned, with the title, version and servers of the definition.
+		 */
+		void begin(APIDefinition api) throws IOException;
+		
+		/**
+		 * Called with each group of scanned resources. Resources that share a path are in the same group.
+		 */
+		void resources(List<ResourceDefinition> resources) throws IOException;
+		
+		/**
+		 * Called once every resource was scanned, the schemas of the definition are complete.
+		 */
+		void end(APIDefinition api) throws IOException;
+	}
+	
+	private static class Members {
+		private final List<VariableElement> fields = new ArrayList<VariableElement>();
+		private final List<VariableElement> declaredFields = new ArrayList<VariableElement>();
+		// Every superclass whose fields are inherited, nearest first
+		private final List<String> superclasses = new ArrayList<String>();
+		private TypeElement superclass;
+	}
 }
@@ -0,0 +1,193 @@
+package io.github.newlunarfire.openapi;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.tools.DocumentationTool;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * Regenerates the document whenever a source file changes. Javadoc runs in-process, so only the first run pays for
+ * JVM startup and class loading, and resources whose sources did not change are restored from the cache.
+ */
+public class OpenAPIWatcher {
+	private static final String USAGE = "Usage: OpenAPIWatcher -sourcepath <roots> -d <directory> -apiPackages <packages> [doclet options]";
+	
+	// Editors save a file in several steps, changes are collected until none happened for this long
+	private static final long QUIET_MILLIS = 200;
+	
+	private final List<Path> sourceRoots;
+	private final List<String> options;
+	private final DocumentationTool tool = ToolProvider.getSystemDocumentationTool();
+	private final Map<WatchKey, Path> directories = new HashMap<WatchKey, Path>();
+	
+	public OpenAPIWatcher(List<Path> sourceRoots, List<String> options) {
+		this.sourceRoots = sourceRoots;
+		this.options = options;
+	}
+	
+	/**
+	 * Runs the doclet once over every source file of the source roots.
+	 */
+	public boolean generate(StandardJavaFileManager fileManager) throws IOException {
+		final List<Path> sources = new ArrayList<Path>();
+		
+		for(Path root : sourceRoots) {
+			try(Stream<Path> files = Files.walk(root)) {
+				files.filter(file -> file.toString().endsWith(".java") && Files.isRegularFile(file)).forEach(sources::add);
+			}
+		}
+		
+		return tool.getTask(null, fileManager, null, OpenAPIDoclet.class, options, fileManager.getJavaFileObjectsFromPaths(sources)).call();
+	}
+	
+	/**
+	 * Generates the document, then again after each change to the source roots, until the thread is interrupted.
+	 */
+	public void watch() throws IOException, InterruptedException {
+		// The file manager keeps the classpath indexed between runs
+		try(WatchService watchService = FileSystems.getDefault().newWatchService();
+			StandardJavaFileManager fileManager = tool.getStandardFileManager(null, Locale.ROOT, StandardCharsets.UTF_8)) {
+			for(Path root : sourceRoots) {
+				register(watchService, root);
+			}
+			
+			run(fileManager);
+			
+			while(true) {
+				WatchKey key = watchService.take();
+				boolean changed = false;
+				
+				while(key != null) {
+					changed |= handle(watchService, key);
+					key = watchService.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS);
+				}
+				
+				if(changed) {
+					run(fileManager);
+				}
+			}
+		}
+	}
+	
+	private void run(StandardJavaFileManager fileManager) {
+		final long start = System.nanoTime();
+		boolean success;
+		
+		try {
+			success = generate(fileManager);
+		} catch (IOException | UncheckedIOException e) {
+			// Files can disappear while they are listed, the next change runs again
+			e.printStackTrace();
+			success = false;
+		}
+		
+		final long millis = (System.nanoTime() - start) / 1_000_000;
+		System.err.println((success ? "Generated the OpenAPI document in " : "Could not generate the OpenAPI document, after ") + millis + " ms");
+	}
+	
+	private boolean handle(WatchService watchService, WatchKey key) throws IOException {
+		final Path directory = directories.get(key);
+		boolean changed = false;
+		
+		for(WatchEvent<?> event : key.pollEvents()) {
+			if(event.kind() == OVERFLOW || directory == null) {
+				changed = true;
+				continue;
+			}
+			
+			final Path path = directory.resolve((Path) event.context());
+			
+			if(event.kind() == ENTRY_CREATE && Files.isDirectory(path)) {
+				// Directories are watched one by one, new ones have to be registered with their content
+				changed |= register(watchService, path);
+			} else if(path.toString().endsWith(".java") || (event.kind() == ENTRY_DELETE && directories.containsValue(path))) {
+				// Other files are ignored, such as the output and cache files when they are under a source root
+				changed = true;
+			}
+		}
+		
+		if(!key.reset()) {
+			directories.remove(key);
+		}
+		
+		return changed;
+	}
+	
+	/**
+	 * Watches a directory and its subdirectories, and returns whether they contain source files.
+	 */
+	private boolean register(WatchService watchService, Path root) throws IOException {
+		final List<Path> tree;
+		
+		try(Stream<Path> files = Files.walk(root)) {
+			tree = files.collect(Collectors.toList());
+		}
+		
+		for(Path directory : tree) {
+			if(Files.isDirectory(directory)) {
+				directories.put(directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), directory);
+			}
+		}
+		
+		return tree.stream().anyMatch(file -> file.toString().endsWith(".java"));
+	}
+	
+	public static void main(String[] args) {
+		final List<String> options = new ArrayList<String>(List.of(args));
+		final List<Path> sourceRoots = new ArrayList<Path>();
+		
+		// The source path is also given to javadoc, to find the types the sources reference
+		final int sourcePathIndex = options.indexOf("-sourcepath");
+		
+		if(sourcePathIndex >= 0 && sourcePathIndex + 1 < options.size()) {
+			for(String root : options.get(sourcePathIndex + 1).split(File.pathSeparator)) {
+				sourceRoots.add(Paths.get(root));
+			}
+		}
+		
+		if(sourceRoots.isEmpty() || !options.contains("-d") || !options.contains("-apiPackages")) {
+			System.err.println(USAGE);
+			System.exit(1);
+		}
+		
+		try {
+			// Without a cache every run would scan all the resources again
+			if(!options.contains("-apiCacheDir")) {
+				final Path cacheDirectory = Files.createTempDirectory("openapi-cache");
+				options.add("-apiCacheDir");
+				options.add(cacheDirectory.toString());
+			}
+			
+			new OpenAPIWatcher(sourceRoots, options).watch();
+		} catch (IOException e) {
+			e.printStackTrace();
+			System.exit(1);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,136 @@
+package io.github.newlunarfire.openapi;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+import io.github.newlunarfire.openapi.defs.type.ReferenceDefinition;
+import io.github.newlunarfire.openapi.defs.type.TypeDefinition;
+
+public class TypeRegistry {
+	private static final Pattern UNSAFE_NAME_CHARACTERS = Pattern.compile("[^A-Za-z0-9._-]+");
+	
+	private final Map<String, String> schemaNames = new HashMap<String, String>();
+	private final Map<String, TypeDefinition> schemas = new LinkedHashMap<String, TypeDefinition>();
+	private final Map<String, Set<String>> dependencies = new HashMap<String, Set<String>>();
+	private final Set<String> usedNames = new HashSet<String>();
+	private final Set<String> inProgress = new HashSet<String>();
+	private final Deque<Set<String>> scanning = new ArrayDeque<Set<String>>();
+	private Set<String> roots = new LinkedHashSet<String>();
+	private int hits = 0;
+	private int cycles = 0;
+	
+	public ReferenceDefinition resolve(String qualifiedName, String simpleName, Supplier<TypeDefinition> scanner) {
+		String name = schemaNames.get(qualifiedName);
+		
+		dependOn(qualifiedName);
+		
+		if(name != null) {
+			hits++;
+			
+			if(inProgress.contains(qualifiedName)) {
+				cycles++;
+			}
+			
+			return new ReferenceDefinition(name);
+		}
+		
+		// Reserve the name before scanning so self-referencing types resolve to a reference
+		name = usedNames.add(simpleName) ? simpleName : UNSAFE_NAME_CHARACTERS.matcher(qualifiedName).replaceAll("_");
+		usedNames.add(name);
+		schemaNames.put(qualifiedName, name);
+		dependencies.put(qualifiedName, new LinkedHashSet<String>());
+		inProgress.add(qualifiedName);
+		scanning.push(dependencies.get(qualifiedName));
+		
+		try {
+			schemas.put(name, scanner.get());
+		} finally {
+			scanning.pop();
+			inProgress.remove(qualifiedName);
+		}
+		
+		return new ReferenceDefinition(name);
+	}
+	
+	/**
+	 * Records that whatever is being scanned depends on the type, so reachable types can be computed per resource.
+	 */
+	public void dependOn(String qualifiedName) {
+		Optional.ofNullable(scanning.peek()).orElse(roots).add(qualifiedName);
+	}
+	
+	public void beginRoot() {
+		roots = new LinkedHashSet<String>();
+	}
+	
+	public Set<String> endRoot() {
+		Set<String> reached = new LinkedHashSet<String>();
+		Deque<String> pending = new ArrayDeque<String>(roots);
+		
+		while(!pending.isEmpty()) {
+			String qualifiedName = pending.pop();
+			
+			if(reached.add(qualifiedName)) {
+				pending.addAll(getDependencies(qualifiedName));
+			}
+		}
+		
+		roots = new LinkedHashSet<String>();
+		return reached;
+	}
+	
+	public boolean canRestore(String qualifiedName, String name) {
+		String current = schemaNames.get(qualifiedName);
+		
+		if(current != null) {
+			return current.equals(name);
+		}
+		
+		return !usedNames.contains(name);
+	}
+	
+	public void restore(String qualifiedName, String name, TypeDefinition definition, Set<String> typeDependencies) {
+		if(schemaNames.containsKey(qualifiedName)) {
+			return;
+		}
+		
+		schemaNames.put(qualifiedName, name);
+		usedNames.add(name);
+		schemas.put(name, definition);
+		dependencies.put(qualifiedName, new LinkedHashSet<String>(typeDependencies));
+	}
+	
+	public String getSchemaName(String qualifiedName) {
+		return schemaNames.get(qualifiedName);
+	}
+	
+	public TypeDefinition getSchema(String name) {
+		return schemas.get(name);
+	}
+	
+	public Set<String> getDependencies(String qualifiedName) {
+		return dependencies.getOrDefault(qualifiedName, Collections.emptySet());
+	}
+	
+	public Map<String, TypeDefinition> getSchemas() {
+		return schemas;
+	}
+	
+	public int getHits() {
+		return hits;
+	}
+	
+	public int getCycles() {
+		return cycles;
+	}
+}
@@ -0,0 +1,147 @@
+package io.github.newlunarfire.openapi;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.ImportTree;
+import com.sun.source.util.DocTrees;
+import com.sun.source.util.TreePath;
+
+import jdk.javadoc.doclet.Reporter;
+
+public class TypeResolver {
+	private static final String JAVA_LANG_PACKAGE = "java.lang";
+	
+	private final Elements elements;
+	private final DocTrees docTrees;
+	private final Reporter reporter;
+	private final Map<String, TypeElement> byQualifiedName = new HashMap<String, TypeElement>();
+	private final Map<String, List<TypeElement>> bySimpleName = new HashMap<String, List<TypeElement>>();
+	// Lookups outside of the included types, misses are memoized as empty
+	private final Map<String, Optional<TypeElement>> classpath = new HashMap<String, Optional<TypeElement>>();
+	private final Map<CompilationUnitTree, Map<String, Optional<TypeElement>>> resolved = new HashMap<CompilationUnitTree, Map<String, Optional<TypeElement>>>();
+	private final Set<String> reportedAmbiguities = new HashSet<String>();
+	
+	public TypeResolver(Elements elements, DocTrees docTrees, Reporter reporter, List<TypeElement> includedTypes) {
+		this.elements = elements;
+		this.docTrees = docTrees;
+		this.reporter = reporter;
+		
+		for(TypeElement type : includedTypes) {
+			byQualifiedName.put(type.getQualifiedName().toString(), type);
+			bySimpleName.computeIfAbsent(type.getSimpleName().toString(), n -> new ArrayList<TypeElement>()).add(type);
+		}
+		
+		// An ambiguous simple name resolves to the same type whatever the order of the included types
+		for(List<TypeElement> candidates : bySimpleName.values()) {
+			candidates.sort(Comparator.comparing(type -> type.getQualifiedName().toString()));
+		}
+	}
+	
+	public Optional<TypeElement> resolve(String name, Element context) {
+		TreePath path = docTrees.getPath(context);
+		
+		if(path == null) {
+			return resolve(name, null, context);
+		}
+		
+		return resolved
+				.computeIfAbsent(path.getCompilationUnit(), unit -> new HashMap<String, Optional<TypeElement>>())
+				.computeIfAbsent(name, n -> resolve(n, path.getCompilationUnit(), context));
+	}
+	
+	private Optional<TypeElement> resolve(String name, CompilationUnitTree unit, Element context) {
+		if(name.contains(".")) {
+			// Either a qualified name or a nested type of an imported type
+			Optional<TypeElement> qualified = lookup(name);
+			
+			if(qualified.isPresent()) {
+				return qualified;
+			}
+			
+			int dot = name.indexOf('.');
+			return resolve(name.substring(0, dot), unit, context)
+					.flatMap(outer -> lookup(outer.getQualifiedName() + name.substring(dot)));
+		}
+		
+		if(unit != null) {
+			for(ImportTree imported : unit.getImports()) {
+				String importName = imported.getQualifiedIdentifier().toString();
+				
+				if(!imported.isStatic() && importName.endsWith("." + name)) {
+					Optional<TypeElement> type = lookup(importName);
+					
+					if(type.isPresent()) {
+						return type;
+					}
+				}
+			}
+		}
+		
+		PackageElement contextPackage = elements.getPackageOf(context);
+		Optional<TypeElement> samePackage = lookup(contextPackage.isUnnamed() ? name : contextPackage.getQualifiedName() + "." + name);
+		
+		if(samePackage.isPresent()) {
+			return samePackage;
+		}
+		
+		if(unit != null) {
+			for(ImportTree imported : unit.getImports()) {
+				String importName = imported.getQualifiedIdentifier().toString();
+				
+				if(!imported.isStatic() && importName.endsWith(".*")) {
+					Optional<TypeElement> type = lookup(importName.substring(0, importName.length() - 1) + name);
+					
+					if(type.isPresent()) {
+						return type;
+					}
+				}
+			}
+		}
+		
+		Optional<TypeElement> javaLang = lookup(JAVA_LANG_PACKAGE + "." + name);
+		
+		if(javaLang.isPresent()) {
+			return javaLang;
+		}
+		
+		return bySimpleName(name, context);
+	}
+	
+	private Optional<TypeElement> bySimpleName(String name, Element context) {
+		List<TypeElement> candidates = bySimpleName.getOrDefault(name, List.of());
+		
+		if(candidates.size() > 1 && reportedAmbiguities.add(name) && reporter != null) {
+			reporter.print(Diagnostic.Kind.WARNING, context, String.format("@returnType %s is ambiguous, it could be any of %s; using %s",
+					name,
+					candidates.stream().map(TypeElement::getQualifiedName).collect(Collectors.joining(", ")),
+					candidates.get(0).getQualifiedName()));
+		}
+		
+		return candidates.stream().findFirst();
+	}
+	
+	private Optional<TypeElement> lookup(String qualifiedName) {
+		TypeElement included = byQualifiedName.get(qualifiedName);
+		
+		if(included != null) {
+			return Optional.of(included);
+		}
+		
+		return classpath.computeIfAbsent(qualifiedName, n -> Optional.ofNullable(elements.getTypeElement(n)));
+	}
+}
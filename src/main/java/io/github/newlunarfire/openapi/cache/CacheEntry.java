@@ -0,0 +1,36 @@
+package io.github.newlunarfire.openapi.cache;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.github.newlunarfire.openapi.defs.ResourceDefinition;
+import io.github.newlunarfire.openapi.defs.type.TypeDefinition;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+public class CacheEntry implements Serializable {
+	private static final long serialVersionUID = 1L;
+	
+	private String configuration;
+	private Map<String, String> fingerprints = new LinkedHashMap<String, String>();
+	private List<CachedType> types = new ArrayList<CachedType>();
+	private ResourceDefinition resource;
+	
+	@Data
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class CachedType implements Serializable {
+		private static final long serialVersionUID = 1L;
+		
+		private String qualifiedName;
+		private String name;
+		private TypeDefinition definition;
+		private Set<String> dependencies;
+	}
+}
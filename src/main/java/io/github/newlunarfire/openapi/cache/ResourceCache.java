@@ -0,0 +1,204 @@
+package io.github.newlunarfire.openapi.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+import com.sun.source.util.DocTrees;
+import com.sun.source.util.TreePath;
+
+import jdk.javadoc.doclet.Reporter;
+
+import io.github.newlunarfire.openapi.TypeRegistry;
+import io.github.newlunarfire.openapi.defs.ResourceDefinition;
+
+public class ResourceCache {
+	private static final String CACHE_VERSION = "4";
+	private static final String ENTRY_EXTENSION = ".bin";
+	
+	private final Path directory;
+	private final Elements elements;
+	private final DocTrees docTrees;
+	private final String configuration;
+	private final Reporter reporter;
+	private final Map<URI, String> sourceFingerprints = new HashMap<URI, String>();
+	private final Map<TypeElement, String> binaryFingerprints = new HashMap<TypeElement, String>();
+	private int hits = 0;
+	private int misses = 0;
+	
+	public ResourceCache(Path directory, Elements elements, DocTrees docTrees, Reporter reporter, String configuration) {
+		this.directory = directory;
+		this.elements = elements;
+		this.docTrees = docTrees;
+		this.reporter = reporter;
+		this.configuration = CACHE_VERSION + ":" + configuration;
+	}
+	
+	public Optional<ResourceDefinition> load(TypeElement resource, TypeRegistry registry) {
+		Optional<CacheEntry> entry = read(entryPath(resource))
+				.filter(e -> configuration.equals(e.getConfiguration()))
+				.filter(e -> e.getFingerprints().entrySet().stream().allMatch(f -> f.getValue() != null && f.getValue().equals(fingerprint(f.getKey()))))
+				.filter(e -> e.getTypes().stream().allMatch(t -> registry.canRestore(t.getQualifiedName(), t.getName())));
+		
+		if(entry.isEmpty()) {
+			misses++;
+			return Optional.empty();
+		}
+		
+		for(var type : entry.get().getTypes()) {
+			registry.restore(type.getQualifiedName(), type.getName(), type.getDefinition(), type.getDependencies());
+		}
+		
+		hits++;
+		return Optional.of(entry.get().getResource());
+	}
+	
+	/**
+	 * Stores a scanned resource with the fingerprints of the sources it was scanned from. Types that could not be
+	 * resolved, such as a missing {@code @returnType}, are stored without a fingerprint, so the entry is not used until
+	 * they can be.
+	 */
+	public void store(TypeElement resource, ResourceDefinition definition, Set<String> reachedTypes, Set<String> unresolvedTypes, TypeRegistry registry) {
+		CacheEntry entry = new CacheEntry();
+		entry.setConfiguration(configuration);
+		entry.setResource(definition);
+		entry.getFingerprints().put(resource.getQualifiedName().toString(), fingerprint(resource));
+		
+		for(String qualifiedName : reachedTypes) {
+			String name = registry.getSchemaName(qualifiedName);
+			
+			entry.getFingerprints().put(qualifiedName, fingerprint(qualifiedName));
+			
+			// Superclasses whose fields were inherited only need their fingerprint
+			if(name == null) {
+				continue;
+			}
+			
+			entry.getTypes().add(new CacheEntry.CachedType(qualifiedName, name, registry.getSchema(name), registry.getDependencies(qualifiedName)));
+		}
+		
+		for(String name : unresolvedTypes) {
+			entry.getFingerprints().put(name, null);
+		}
+		
+		try {
+			write(entryPath(resource), entry);
+		} catch (IOException e) {
+			if(reporter != null) {
+				reporter.print(Diagnostic.Kind.WARNING, resource, "Could not write cache entry for " + resource.getQualifiedName() + ": " + e.getMessage());
+			}
+		}
+	}
+	
+	public int getHits() {
+		return hits;
+	}
+	
+	public int getMisses() {
+		return misses;
+	}
+	
+	private Path entryPath(TypeElement resource) {
+		return directory.resolve(resource.getQualifiedName() + ENTRY_EXTENSION);
+	}
+	
+	private Optional<CacheEntry> read(Path file) {
+		if(!Files.isRegularFile(file)) {
+			return Optional.empty();
+		}
+		
+		try(ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			return Optional.of((CacheEntry) in.readObject());
+		} catch (IOException | ClassNotFoundException | ClassCastException e) {
+			// An unreadable entry is a cache miss, it gets overwritten after the resource is scanned
+			return Optional.empty();
+		}
+	}
+	
+	private void write(Path file, CacheEntry entry) throws IOException {
+		Files.createDirectories(directory);
+		Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+		
+		try(ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+			out.writeObject(entry);
+		}
+		
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+	
+	private String fingerprint(String qualifiedName) {
+		// Instances of generic types, such as Page<Order>, come from the source of the generic type
+		int typeArguments = qualifiedName.indexOf('<');
+		TypeElement type = elements.getTypeElement(typeArguments < 0 ? qualifiedName : qualifiedName.substring(0, typeArguments));
+		return type == null ? null : fingerprint(type);
+	}
+	
+	private String fingerprint(TypeElement type) {
+		TreePath path = docTrees.getPath(type);
+		
+		if(path == null) {
+			return binaryFingerprints.computeIfAbsent(type, ResourceCache::signature);
+		}
+		
+		JavaFileObject source = path.getCompilationUnit().getSourceFile();
+		
+		return sourceFingerprints.computeIfAbsent(source.toUri(), uri -> {
+			try {
+				return sha256(source.getCharContent(true).toString());
+			} catch (IOException e) {
+				return null;
+			}
+		});
+	}
+	
+	/**
+	 * Fingerprints a type loaded from the classpath, which has no source, by the declarations its schema is made of.
+	 * Types used by its members have fingerprints of their own.
+	 */
+	private static String signature(TypeElement type) {
+		StringBuilder signature = new StringBuilder()
+				.append(type.getKind()).append(' ').append(type.getQualifiedName()).append(type.getTypeParameters())
+				.append(" extends ").append(type.getSuperclass()).append(" implements ").append(type.getInterfaces())
+				.append(' ').append(type.getAnnotationMirrors());
+		
+		for(Element member : type.getEnclosedElements()) {
+			signature.append('\n').append(member.getModifiers()).append(' ').append(member.getKind()).append(' ')
+					.append(member.getSimpleName()).append(' ').append(member.asType()).append(' ').append(member.getAnnotationMirrors());
+		}
+		
+		return "binary:" + sha256(signature.toString());
+	}
+	
+	private static String sha256(String content) {
+		try {
+			StringBuilder hex = new StringBuilder();
+			
+			for(byte b : MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8))) {
+				hex.append(String.format("%02x", b));
+			}
+			
+			return hex.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -1,13 +1,20 @@
 package io.github.newlunarfire.openapi.defs;
 
+import java.io.Serializable;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
+import io.github.newlunarfire.openapi.defs.type.TypeDefinition;
 import lombok.Data;
 
 @Data
-public class APIDefinition {
+public class APIDefinition implements Serializable {
+	private static final long serialVersionUID = 1L;
+	
 	private String title;
 	private String version;
 	private String servers;
 	private List<ResourceDefinition> resources;
+	private Map<String, TypeDefinition> schemas = new TreeMap<String, TypeDefinition>();
 }
@@ -1,13 +1,20 @@
 package io.github.newlunarfire.openapi.defs;
 
-import java.util.HashMap;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import io.github.newlunarfire.openapi.defs.type.TypeDefinition;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
 
 @Data
-public class MethodDefinition {
+public class MethodDefinition implements Serializable {
+	private static final long serialVersionUID = 1L;
+	
 	private String name;
 	private String consumes;
 	private String produces;
@@ -15,23 +22,60 @@ public class MethodDefinition {
 	private String path;
 	private String body;
 	private String blockTags;
-	private Map<String, TypeDefinition> pathParameters = new HashMap<String, TypeDefinition>();
-	private Map<String, String> pathParameterDescriptions = new HashMap<String, String>();
+	// Most methods have no path parameters, the maps are only allocated for the first one, by the add methods
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private Map<String, TypeDefinition> pathParameters = Collections.emptyMap();
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private Map<String, String> pathParameterDescriptions = Collections.emptyMap();
 	private TypeDefinition returnType;
 	private TypeDefinition requestBody;
 	
+	// Media types and verbs are the same few strings in every method, they are interned
 	public void setProduces(String produces) {
-		this.produces = produces.replace("\"", "");
+		this.produces = produces == null ? null : produces.replace("\"", "").intern();
 	}
 	
 	public void setConsumes(String consumes) {
-		this.consumes = consumes.replace("\"", "");
+		this.consumes = consumes == null ? null : consumes.replace("\"", "").intern();
+	}
+	
+	public void setVerb(String verb) {
+		this.verb = verb == null ? null : verb.intern();
+	}
+	
+	/**
+	 * Returns the path parameters by name, read-only: they are added with {@link #addPathParameter}.
+	 */
+	public Map<String, TypeDefinition> getPathParameters() {
+		return Collections.unmodifiableMap(pathParameters);
+	}
+	
+	/**
+	 * Returns the descriptions of the path parameters by name, read-only: they are added with
+	 * {@link #addPathParameterDescription}.
+	 */
+	public Map<String, String> getPathParameterDescriptions() {
+		return Collections.unmodifiableMap(pathParameterDescriptions);
 	}
 	
 	public void addPathParameter(String name, TypeDefinition type) {
+		if(pathParameters.isEmpty()) {
+			pathParameters = new LinkedHashMap<String, TypeDefinition>(4);
+		}
+		
 		pathParameters.put(name, type);
 	}
 	
+	public void addPathParameterDescription(String name, String description) {
+		if(pathParameterDescriptions.isEmpty()) {
+			pathParameterDescriptions = new LinkedHashMap<String, String>(4);
+		}
+		
+		pathParameterDescriptions.put(name, description);
+	}
+	
 	public String getParameterDescription(String name) {
 		return pathParameterDescriptions.get(name);
 	}
@@ -1,12 +1,15 @@
 package io.github.newlunarfire.openapi.defs;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
 import lombok.Data;
 
 @Data
-public class ResourceDefinition {
+public class ResourceDefinition implements Serializable {
+	private static final long serialVersionUID = 1L;
+	
 	private String basePath;
 	private List<MethodDefinition> methods = new ArrayList<MethodDefinition>();
 }
\ No newline at end of file
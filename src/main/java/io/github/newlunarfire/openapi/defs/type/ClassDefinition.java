@@ -1,6 +1,6 @@
 package io.github.newlunarfire.openapi.defs.type;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import lombok.Data;
@@ -8,7 +8,11 @@ import lombok.ToString;
 
 @Data
 @ToString
-public class ClassDefinition implements TypeDefinition {
-	private Map<String, TypeDefinition> children = new HashMap<String, TypeDefinition>();  
+public class ClassDefinition implements MutableTypeDefinition {
+	private static final long serialVersionUID = 1L;
+	
+	private Map<String, TypeDefinition> children = new LinkedHashMap<String, TypeDefinition>();  
 	private String description; 
+	// Schema this class extends with allOf, children then only hold its own fields
+	private TypeDefinition parent;
 }
@@ -1,6 +1,6 @@
 package io.github.newlunarfire.openapi.defs.type;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import lombok.Data;
@@ -8,7 +8,9 @@ import lombok.ToString;
 
 @Data
 @ToString
-public class EnumDefinition implements TypeDefinition {
+public class EnumDefinition implements MutableTypeDefinition {
+	private static final long serialVersionUID = 1L;
+	
 	private String description;
-	private Map<String, String> values = new HashMap<String, String>();
+	private Map<String, String> values = new LinkedHashMap<String, String>();
 }
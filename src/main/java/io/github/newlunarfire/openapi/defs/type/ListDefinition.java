@@ -3,7 +3,10 @@ package io.github.newlunarfire.openapi.defs.type;
 import lombok.Data;
 
 @Data
-public class ListDefinition implements TypeDefinition {
+public class ListDefinition implements MutableTypeDefinition {
+	private static final long serialVersionUID = 1L;
+	
 	private String description;
 	private TypeDefinition subType;
+	private boolean uniqueItems;
 }
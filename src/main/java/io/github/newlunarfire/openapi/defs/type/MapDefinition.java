@@ -0,0 +1,11 @@
+package io.github.newlunarfire.openapi.defs.type;
+
+import lombok.Data;
+
+@Data
+public class MapDefinition implements MutableTypeDefinition {
+	private static final long serialVersionUID = 1L;
+	
+	private String description;
+	private TypeDefinition valueType;
+}
@@ -0,0 +1,8 @@
+package io.github.newlunarfire.openapi.defs.type;
+
+/**
+ * A definition that is completed in place, its description is set once it is rendered. Primitives are immutable.
+ */
+public interface MutableTypeDefinition extends TypeDefinition {
+	public void setDescription(String description);
+}
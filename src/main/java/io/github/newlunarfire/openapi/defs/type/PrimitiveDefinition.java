@@ -1,11 +1,45 @@
 package io.github.newlunarfire.openapi.defs.type;
 
-import lombok.Data;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.ToString;
 
-@Data
+@Getter
+@EqualsAndHashCode
 @ToString
-public class PrimitiveDefinition implements TypeDefinition {
-	private String description;
-	private String type;
+public final class PrimitiveDefinition implements TypeDefinition {
+	private static final long serialVersionUID = 1L;
+	
+	// One instance per type, used wherever the type has no description of its own
+	private static final Map<String, PrimitiveDefinition> SHARED = new ConcurrentHashMap<String, PrimitiveDefinition>();
+	
+	private final String description;
+	private final String type;
+	
+	private PrimitiveDefinition(String type, String description) {
+		this.description = description;
+		this.type = type;
+	}
+	
+	/**
+	 * Returns the undocumented definition of a type, the same instance for every use of the type.
+	 */
+	public static PrimitiveDefinition of(String type) {
+		return SHARED.computeIfAbsent(type, key -> new PrimitiveDefinition(key.intern(), null));
+	}
+	
+	/**
+	 * Returns a definition of the same type with the given description, the shared one if it is null.
+	 */
+	public PrimitiveDefinition withDescription(String description) {
+		return description == null ? of(type) : new PrimitiveDefinition(type, description);
+	}
+	
+	// Cached definitions are read back as the shared instances
+	private Object readResolve() {
+		return description == null ? of(type) : this;
+	}
 }
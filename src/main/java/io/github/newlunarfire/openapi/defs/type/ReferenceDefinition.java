@@ -0,0 +1,19 @@
+package io.github.newlunarfire.openapi.defs.type;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReferenceDefinition implements MutableTypeDefinition {
+	private static final long serialVersionUID = 1L;
+	
+	private String name;
+	private String description;
+	
+	public ReferenceDefinition(String name) {
+		this.name = name;
+	}
+}
@@ -1,6 +1,7 @@
 package io.github.newlunarfire.openapi.defs.type;
 
-public interface TypeDefinition {
+import java.io.Serializable;
+
+public interface TypeDefinition extends Serializable {
 	public String getDescription();
-	public void setDescription(String description);
 }
@@ -0,0 +1,137 @@
+package io.github.newlunarfire.openapi.defs.type;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Operations on whole type trees.
+ */
+public final class TypeDefinitions {
+	private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+	
+	private TypeDefinitions() {
+	}
+	
+	/**
+	 * Returns a 64-bit hash of the structure of a type. Descriptions are left out, so the same type documented
+	 * differently has the same hash, and so is the order of the properties of a class.
+	 */
+	public static long structuralHash(TypeDefinition type) {
+		return structuralHash(type, null);
+	}
+	
+	/**
+	 * Same as {@link #structuralHash(TypeDefinition)}, the hash of each node of the tree is computed from the hashes of
+	 * its children and kept in the map, so every node is hashed once.
+	 */
+	public static long structuralHash(TypeDefinition type, Map<TypeDefinition, Long> hashes) {
+		if(hashes == null) {
+			return hash(type, null);
+		}
+		
+		Long hash = hashes.get(type);
+		
+		if(hash == null) {
+			hash = hash(type, hashes);
+			hashes.put(type, hash);
+		}
+		
+		return hash;
+	}
+	
+	/**
+	 * Adds a string to a hash, to build the hashes of nodes that contain types.
+	 */
+	public static long combine(long hash, String value) {
+		if(value == null) {
+			return combine(hash, -1L);
+		}
+		
+		for(byte b : value.getBytes(StandardCharsets.UTF_8)) {
+			hash = (hash ^ (b & 0xff)) * FNV_PRIME;
+		}
+		
+		// The length keeps adjacent strings apart
+		return combine(hash, value.length());
+	}
+	
+	/**
+	 * Adds a number, or the hash of a child node, to a hash.
+	 */
+	public static long combine(long hash, long value) {
+		for(int shift = 0; shift < 64; shift += 8) {
+			hash = (hash ^ ((value >>> shift) & 0xff)) * FNV_PRIME;
+		}
+		
+		return hash;
+	}
+	
+	/**
+	 * Calls the consumer with every type of the tree, the type itself first.
+	 */
+	public static void walk(TypeDefinition type, Consumer<TypeDefinition> consumer) {
+		if(type == null) {
+			return;
+		}
+		
+		consumer.accept(type);
+		
+		if(type instanceof ClassDefinition) {
+			((ClassDefinition) type).getChildren().values().forEach(child -> walk(child, consumer));
+			walk(((ClassDefinition) type).getParent(), consumer);
+		} else if(type instanceof ListDefinition) {
+			walk(((ListDefinition) type).getSubType(), consumer);
+		} else if(type instanceof MapDefinition) {
+			walk(((MapDefinition) type).getValueType(), consumer);
+		}
+	}
+	
+	/**
+	 * Replaces, in place, the schema names of the references found in the map.
+	 */
+	public static void renameReferences(TypeDefinition type, Map<String, String> names) {
+		walk(type, t -> {
+			if(t instanceof ReferenceDefinition) {
+				final ReferenceDefinition reference = (ReferenceDefinition) t;
+				reference.setName(names.getOrDefault(reference.getName(), reference.getName()));
+			}
+		});
+	}
+	
+	private static long hash(TypeDefinition type, Map<TypeDefinition, Long> hashes) {
+		long hash = FNV_OFFSET;
+		
+		if(type instanceof ClassDefinition) {
+			final ClassDefinition clazz = (ClassDefinition) type;
+			hash = combine(hash, 1);
+			
+			for(var child : new TreeMap<String, TypeDefinition>(clazz.getChildren()).entrySet()) {
+				hash = combine(combine(hash, child.getKey()), structuralHash(child.getValue(), hashes));
+			}
+			
+			return combine(combine(hash, clazz.getChildren().size()), structuralHash(clazz.getParent(), hashes));
+		} else if(type instanceof EnumDefinition) {
+			hash = combine(hash, 2);
+			
+			for(String value : ((EnumDefinition) type).getValues().keySet()) {
+				hash = combine(hash, value);
+			}
+			
+			return combine(hash, ((EnumDefinition) type).getValues().size());
+		} else if(type instanceof ListDefinition) {
+			final ListDefinition list = (ListDefinition) type;
+			return combine(combine(hash, list.isUniqueItems() ? 4 : 3), structuralHash(list.getSubType(), hashes));
+		} else if(type instanceof PrimitiveDefinition) {
+			return combine(combine(hash, 5), ((PrimitiveDefinition) type).getType());
+		} else if(type instanceof ReferenceDefinition) {
+			return combine(combine(hash, 6), ((ReferenceDefinition) type).getName());
+		} else if(type instanceof MapDefinition) {
+			return combine(combine(hash, 7), structuralHash(((MapDefinition) type).getValueType(), hashes));
+		}
+		
+		return combine(hash, 0);
+	}
+}
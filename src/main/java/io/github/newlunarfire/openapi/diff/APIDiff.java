@@ -0,0 +1,336 @@
+package io.github.newlunarfire.openapi.diff;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import io.github.newlunarfire.openapi.defs.APIDefinition;
+import io.github.newlunarfire.openapi.defs.MethodDefinition;
+import io.github.newlunarfire.openapi.defs.ResourceDefinition;
+import io.github.newlunarfire.openapi.defs.type.ClassDefinition;
+import io.github.newlunarfire.openapi.defs.type.EnumDefinition;
+import io.github.newlunarfire.openapi.defs.type.ListDefinition;
+import io.github.newlunarfire.openapi.defs.type.MapDefinition;
+import io.github.newlunarfire.openapi.defs.type.PrimitiveDefinition;
+import io.github.newlunarfire.openapi.defs.type.ReferenceDefinition;
+import io.github.newlunarfire.openapi.defs.type.TypeDefinition;
+import io.github.newlunarfire.openapi.defs.type.TypeDefinitions;
+import io.github.newlunarfire.openapi.output.PathTrie;
+import lombok.Getter;
+
+/**
+ * Compares two versions of an API and classifies the changes as breaking or not. Paths, operations and schemas are
+ * hashed from the hashes of their children, so a part that did not change is skipped once its hashes are compared.
+ * Descriptions are not compared.
+ * <p>
+ * Changes to a type are classified by where it is used. Clients send request types and read response types, so a
+ * removed property only breaks responses, a removed enum value only breaks requests, and an added enum value only
+ * breaks responses. Schemas used in both, or in neither, are classified as both.
+ */
+public class APIDiff {
+	private static final int REQUEST = 1;
+	private static final int RESPONSE = 2;
+	private static final int BOTH = REQUEST | RESPONSE;
+	
+
+	// Hashes of every node, by identity since the definitions compare by value
+	private final Map<TypeDefinition, Long> typeHashes = new IdentityHashMap<TypeDefinition, Long>();
+	private final Map<MethodDefinition, Long> operationHashes = new IdentityHashMap<MethodDefinition, Long>();
+	// REQUEST and RESPONSE flags of each schema, in either version
+	private final Map<String, Integer> usages = new HashMap<String, Integer>();
+	
+	@Getter
+	private final List<Change> changes = new ArrayList<Change>();
+	
+	// Paths, operations and types found unchanged by their hash
+	@Getter
+	private int skipped = 0;
+	
+	public static List<Change> compare(APIDefinition before, APIDefinition after) {
+		final APIDiff diff = new APIDiff();
+		diff.diff(before, after);
+		return diff.getChanges();
+	}
+	
+	public void diff(APIDefinition before, APIDefinition after) {
+		markUsages(before);
+		markUsages(after);
+		
+		final Map<String, Map<String, MethodDefinition>> oldPaths = groupByPath(before);
+		final Map<String, Map<String, MethodDefinition>> newPaths = groupByPath(after);
+		
+		for(var path : oldPaths.entrySet()) {
+			final Map<String, MethodDefinition> newOperations = newPaths.get(path.getKey());
+			
+			if(newOperations == null) {
+				breaking(path.getKey(), "path removed");
+			} else if(hash(path.getValue()) == hash(newOperations)) {
+				skipped++;
+			} else {
+				diffOperations(path.getKey(), path.getValue(), newOperations);
+			}
+		}
+		
+		for(String path : newPaths.keySet()) {
+			if(!oldPaths.containsKey(path)) {
+				nonBreaking(path, "path added");
+			}
+		}
+		
+		for(var schema : before.getSchemas().entrySet()) {
+			final TypeDefinition newSchema = after.getSchemas().get(schema.getKey());
+			
+			if(newSchema == null) {
+				breaking(schema.getKey(), "schema removed");
+			} else {
+				diffType(schema.getKey(), schema.getValue(), newSchema, usages.getOrDefault(schema.getKey(), BOTH));
+			}
+		}
+		
+		for(String schema : after.getSchemas().keySet()) {
+			if(!before.getSchemas().containsKey(schema)) {
+				nonBreaking(schema, "schema added");
+			}
+		}
+	}
+	
+	public boolean isBreaking() {
+		return changes.stream().anyMatch(Change::isBreaking);
+	}
+	
+	private void diffOperations(String path, Map<String, MethodDefinition> before, Map<String, MethodDefinition> after) {
+		for(var operation : before.entrySet()) {
+			final String location = operation.getKey() + " " + path;
+			final MethodDefinition newOperation = after.get(operation.getKey());
+			
+			if(newOperation == null) {
+				breaking(location, "operation removed");
+			} else if(hash(operation.getValue()) == hash(newOperation)) {
+				skipped++;
+			} else {
+				diffOperation(location, operation.getValue(), newOperation);
+			}
+		}
+		
+		for(String verb : after.keySet()) {
+			if(!before.containsKey(verb)) {
+				nonBreaking(verb + " " + path, "operation added");
+			}
+		}
+	}
+	
+	private void diffOperation(String location, MethodDefinition before, MethodDefinition after) {
+		if(!String.valueOf(before.getConsumes()).equals(String.valueOf(after.getConsumes()))) {
+			breaking(location, "consumes " + after.getConsumes() + " instead of " + before.getConsumes());
+		}
+		
+		if(!String.valueOf(before.getProduces()).equals(String.valueOf(after.getProduces()))) {
+			breaking(location, "produces " + after.getProduces() + " instead of " + before.getProduces());
+		}
+		
+		for(var parameter : before.getPathParameters().entrySet()) {
+			final TypeDefinition newType = after.getPathParameters().get(parameter.getKey());
+			
+			if(newType == null) {
+				breaking(location, "path parameter " + parameter.getKey() + " removed");
+			} else {
+				diffType(location + " parameter " + parameter.getKey(), parameter.getValue(), newType, REQUEST);
+			}
+		}
+		
+		for(String parameter : after.getPathParameters().keySet()) {
+			if(!before.getPathParameters().containsKey(parameter)) {
+				breaking(location, "new required path parameter " + parameter);
+			}
+		}
+		
+		if(before.getRequestBody() == null && after.getRequestBody() != null) {
+			breaking(location, "new required request body");
+		} else if(before.getRequestBody() != null && after.getRequestBody() == null) {
+			nonBreaking(location, "request body removed");
+		} else if(before.getRequestBody() != null) {
+			diffType(location + " request body", before.getRequestBody(), after.getRequestBody(), REQUEST);
+		}
+		
+		if(before.getReturnType() == null && after.getReturnType() != null) {
+			nonBreaking(location, "response body added");
+		} else if(before.getReturnType() != null && after.getReturnType() == null) {
+			breaking(location, "response body removed");
+		} else if(before.getReturnType() != null) {
+			diffType(location + " response", before.getReturnType(), after.getReturnType(), RESPONSE);
+		}
+	}
+	
+	private void diffType(String location, TypeDefinition before, TypeDefinition after, int usage) {
+		if(hash(before) == hash(after)) {
+			skipped++;
+			return;
+		}
+		
+		if(before == null || after == null || before.getClass() != after.getClass()) {
+			breaking(location, "type changed from " + describe(before) + " to " + describe(after));
+		} else if(before instanceof ClassDefinition) {
+			diffClass(location, (ClassDefinition) before, (ClassDefinition) after, usage);
+		} else if(before instanceof EnumDefinition) {
+			final Map<String, String> oldValues = ((EnumDefinition) before).getValues();
+			final Map<String, String> newValues = ((EnumDefinition) after).getValues();
+			
+			// Clients may still send a removed value, and may not expect an added one
+			oldValues.keySet().stream().filter(value -> !newValues.containsKey(value)).forEach(value -> change(usage, REQUEST, location, "enum value " + value + " removed"));
+			newValues.keySet().stream().filter(value -> !oldValues.containsKey(value)).forEach(value -> change(usage, RESPONSE, location, "enum value " + value + " added"));
+		} else if(before instanceof ListDefinition) {
+			final ListDefinition oldList = (ListDefinition) before;
+			final ListDefinition newList = (ListDefinition) after;
+			
+			if(!oldList.isUniqueItems() && newList.isUniqueItems()) {
+				change(usage, REQUEST, location, "items must be unique");
+			} else if(oldList.isUniqueItems() && !newList.isUniqueItems()) {
+				change(usage, RESPONSE, location, "items no longer need to be unique");
+			}
+			
+			diffType(location + "[]", oldList.getSubType(), newList.getSubType(), usage);
+		} else if(before instanceof MapDefinition) {
+			diffType(location + "{}", ((MapDefinition) before).getValueType(), ((MapDefinition) after).getValueType(), usage);
+		} else {
+			breaking(location, "type changed from " + describe(before) + " to " + describe(after));
+		}
+	}
+	
+	private void diffClass(String location, ClassDefinition before, ClassDefinition after, int usage) {
+		for(var property : before.getChildren().entrySet()) {
+			final TypeDefinition newType = after.getChildren().get(property.getKey());
+			
+			if(newType == null) {
+				// Clients read the properties of responses, a property they still send in a request is ignored
+				change(usage, RESPONSE, location, "property " + property.getKey() + " removed");
+			} else {
+				diffType(location + "." + property.getKey(), property.getValue(), newType, usage);
+			}
+		}
+		
+		for(String property : after.getChildren().keySet()) {
+			if(!before.getChildren().containsKey(property)) {
+				nonBreaking(location, "property " + property + " added");
+			}
+		}
+		
+		if(before.getParent() != null || after.getParent() != null) {
+			diffType(location + " allOf", before.getParent(), after.getParent(), usage);
+		}
+	}
+	
+	private long hash(TypeDefinition type) {
+		return TypeDefinitions.structuralHash(type, typeHashes);
+	}
+	
+	private long hash(MethodDefinition method) {
+		Long hash = operationHashes.get(method);
+		
+		if(hash == null) {
+			long h = TypeDefinitions.combine(TypeDefinitions.combine(0L, method.getConsumes()), method.getProduces());
+			
+			for(var parameter : new TreeMap<String, TypeDefinition>(method.getPathParameters()).entrySet()) {
+				h = TypeDefinitions.combine(TypeDefinitions.combine(h, parameter.getKey()), hash(parameter.getValue()));
+			}
+			
+			hash = TypeDefinitions.combine(TypeDefinitions.combine(h, hash(method.getRequestBody())), hash(method.getReturnType()));
+			operationHashes.put(method, hash);
+		}
+		
+		return hash;
+	}
+	
+	private long hash(Map<String, MethodDefinition> operations) {
+		long hash = 0L;
+		
+		for(var operation : operations.entrySet()) {
+			hash = TypeDefinitions.combine(TypeDefinitions.combine(hash, operation.getKey()), hash(operation.getValue()));
+		}
+		
+		return hash;
+	}
+	
+	/**
+	 * Records a change that is breaking when the type is used in the given direction.
+	 */
+	private void change(int usage, int breakingUsage, String location, String message) {
+		changes.add(new Change((usage & breakingUsage) != 0, location, message));
+	}
+	
+	/**
+	 * Flags the schemas reached from request bodies and path parameters as REQUEST, and those reached from return
+	 * types as RESPONSE.
+	 */
+	private void markUsages(APIDefinition api) {
+		for(ResourceDefinition resource : api.getResources()) {
+			for(MethodDefinition method : resource.getMethods()) {
+				method.getPathParameters().values().forEach(type -> markUsage(api, type, REQUEST));
+				markUsage(api, method.getRequestBody(), REQUEST);
+				markUsage(api, method.getReturnType(), RESPONSE);
+			}
+		}
+	}
+	
+	private void markUsage(APIDefinition api, TypeDefinition root, int usage) {
+		final Deque<TypeDefinition> pending = new ArrayDeque<TypeDefinition>();
+		
+		if(root != null) {
+			pending.push(root);
+		}
+		
+		while(!pending.isEmpty()) {
+			TypeDefinitions.walk(pending.pop(), type -> {
+				if(type instanceof ReferenceDefinition) {
+					final String name = ((ReferenceDefinition) type).getName();
+					final int previous = usages.getOrDefault(name, 0);
+					
+					// Each schema is followed once per direction, which also ends cycles
+					if((previous & usage) == 0 && api.getSchemas().containsKey(name)) {
+						usages.put(name, previous | usage);
+						pending.push(api.getSchemas().get(name));
+					}
+				}
+			});
+		}
+	}
+	
+	private void breaking(String location, String message) {
+		changes.add(new Change(true, location, message));
+	}
+	
+	private void nonBreaking(String location, String message) {
+		changes.add(new Change(false, location, message));
+	}
+	
+	private static String describe(TypeDefinition type) {
+		if(type instanceof PrimitiveDefinition) {
+			return ((PrimitiveDefinition) type).getType();
+		} else if(type instanceof ReferenceDefinition) {
+			return ((ReferenceDefinition) type).getName();
+		} else if(type == null) {
+			return "nothing";
+		}
+		
+		return type.getClass().getSimpleName().replace("Definition", "").toLowerCase(Locale.ROOT);
+	}
+	
+	// Like the document, a route declared twice only counts with its first operation
+	private static Map<String, Map<String, MethodDefinition>> groupByPath(APIDefinition api) {
+		final Map<String, Map<String, MethodDefinition>> paths = new LinkedHashMap<String, Map<String, MethodDefinition>>();
+		
+		for(ResourceDefinition resource : api.getResources()) {
+			for(MethodDefinition method : resource.getMethods()) {
+				paths.computeIfAbsent(PathTrie.normalize(resource.getBasePath(), method.getPath()), p -> new TreeMap<String, MethodDefinition>()).putIfAbsent(method.getVerb(), method);
+			}
+		}
+		
+		return paths;
+	}
+}
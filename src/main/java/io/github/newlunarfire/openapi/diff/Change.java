@@ -0,0 +1,22 @@
+package io.github.newlunarfire.openapi.diff;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A difference between two versions of an API. A change is breaking when clients of the old version can fail
+ * against the new one.
+ */
+@Data
+@AllArgsConstructor
+public class Change {
+	private boolean breaking;
+	// Operation, such as "GET /orders/{id}", or schema, such as "Order.lines[].product"
+	private String location;
+	private String message;
+	
+	@Override
+	public String toString() {
+		return (breaking ? "BREAKING " : "") + location + ": " + message;
+	}
+}
@@ -0,0 +1,144 @@
+package io.github.newlunarfire.openapi.output;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class AtomicFileOutputStream extends FilterOutputStream {
+	private static final String DIGEST_EXTENSION = ".sha256";
+	private static final String TEMP_EXTENSION = ".tmp";
+	
+	private final Path target;
+	private final Path temp;
+	private final MessageDigest digest;
+	private boolean committed = false;
+	private boolean changed = false;
+	private boolean closed = false;
+	
+	public AtomicFileOutputStream(Path target) throws IOException {
+		super(null);
+		this.target = target;
+		this.temp = createTemp(target);
+		this.digest = createDigest();
+		
+		try {
+			this.out = new DigestOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)), digest);
+		} catch (IOException e) {
+			Files.deleteIfExists(temp);
+			throw e;
+		}
+	}
+	
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		out.write(b, off, len);
+	}
+	
+	public void commit() {
+		this.committed = true;
+	}
+	
+	public boolean isChanged() {
+		return changed;
+	}
+	
+	public Path getTarget() {
+		return target;
+	}
+	
+	@Override
+	public void close() throws IOException {
+		if(closed) {
+			return;
+		}
+		
+		closed = true;
+		
+		try {
+			super.close();
+			
+			if(committed) {
+				publish();
+			}
+		} finally {
+			// Already moved when the file was published
+			Files.deleteIfExists(temp);
+		}
+	}
+	
+	private void publish() throws IOException {
+		final Path digestFile = target.resolveSibling(target.getFileName() + DIGEST_EXTENSION);
+		final String hash = toHex(digest.digest());
+		
+		// Leave the previous file untouched so downstream tasks stay up to date
+		if(Files.isRegularFile(target) && Files.isRegularFile(digestFile) && hash.equals(Files.readString(digestFile, StandardCharsets.UTF_8).trim())) {
+			Files.delete(temp);
+			return;
+		}
+		
+		move(temp, target);
+		
+		Path digestTemp = createTemp(digestFile);
+		
+		try {
+			Files.writeString(digestTemp, hash, StandardCharsets.UTF_8);
+			move(digestTemp, digestFile);
+		} finally {
+			Files.deleteIfExists(digestTemp);
+		}
+		
+		changed = true;
+	}
+	
+	/**
+	 * Creates a temp file next to the given one, with a name of its own so that concurrent runs writing the same file do
+	 * not share it. It is created like any other file, so the published file keeps the usual permissions.
+	 */
+	private static Path createTemp(Path file) throws IOException {
+		while(true) {
+			Path temp = file.resolveSibling(file.getFileName() + "." + Long.toHexString(ThreadLocalRandom.current().nextLong()) + TEMP_EXTENSION);
+			
+			try {
+				return Files.createFile(temp);
+			} catch (FileAlreadyExistsException e) {
+				// Taken by another run, try another name
+			}
+		}
+	}
+	
+	private static void move(Path source, Path destination) throws IOException {
+		try {
+			Files.move(source, destination, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(source, destination, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+	
+	private static MessageDigest createDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	private static String toHex(byte[] bytes) {
+		StringBuilder hex = new StringBuilder();
+		
+		for(byte b : bytes) {
+			hex.append(String.format("%02x", b));
+		}
+		
+		return hex.toString();
+	}
+}
@@ -1,239 +1,115 @@
 package io.github.newlunarfire.openapi.output;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.Optional;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonNull;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonWriter;
 
-import io.github.newlunarfire.openapi.defs.APIDefinition;
-import io.github.newlunarfire.openapi.defs.MethodDefinition;
-import io.github.newlunarfire.openapi.defs.ResourceDefinition;
-import io.github.newlunarfire.openapi.defs.type.ClassDefinition;
-import io.github.newlunarfire.openapi.defs.type.EnumDefinition;
-import io.github.newlunarfire.openapi.defs.type.ListDefinition;
-import io.github.newlunarfire.openapi.defs.type.PrimitiveDefinition;
-import io.github.newlunarfire.openapi.defs.type.TypeDefinition;
-
-public class JsonOutputFormatter {
-	private static Gson gson = new GsonBuilder().setPrettyPrinting().serializeNulls().create();
-	private APIDefinition api;
+public class JsonOutputFormatter implements OutputListener {
+	private static final String INDENT = "  ";
+	private static final String EXTENSION = ".json";
+	
+	private final Writer out;
+	private final JsonWriter writer;
+	// No whitespace and no null values
+	private final boolean compact;
+	private final int depth;
 	
-	public JsonOutputFormatter(APIDefinition api) {
-		this.api = api;
+	public JsonOutputFormatter(OutputStream out) {
+		this(out, false);
 	}
 	
-	public void output(OutputStream out) throws IOException {
-		JsonObject root = new JsonObject();
-		JsonObject paths = new JsonObject();
-		
-		root.addProperty("openapi", "3.0.0");
-		root.add("info", createInfo(api));
-		root.add("servers", createServers(api.getServers()));
-		
-		for(ResourceDefinition rdef : api.getResources()) {
-			for(MethodDefinition mdef: rdef.getMethods()) {
-				String path = rdef.getBasePath() + Optional.ofNullable(mdef.getPath()).orElse("");
-				
-				if(!paths.has(path)) {
-					paths.add(path, new JsonObject());
-				}
-				
-				JsonObject pathObj = paths.get(path).getAsJsonObject();
-				JsonObject pathVerbObj = new JsonObject();
-				
-				if(mdef.getBody() != null) {
-					pathVerbObj.addProperty("description", mdef.getBody());
-				}
-				
-				pathVerbObj.add("parameters", getParameters(mdef));
-				
-				if("POST".equals(mdef.getVerb())) {
-					pathVerbObj.add("requestBody", getRequestBody(mdef));
-				}
-				pathVerbObj.add("responses", getResponses(mdef));
-				
-				pathObj.add(mdef.getVerb().toLowerCase(), pathVerbObj);
-			}
+	public JsonOutputFormatter(OutputStream out, boolean compact) {
+		this(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)), compact, 0);
+	}
+	
+	private JsonOutputFormatter(Writer out, boolean compact, int depth) {
+		this.out = out;
+		this.compact = compact;
+		this.depth = depth;
+		this.writer = new JsonWriter(out);
+		// Same escaping as the default Gson instance, <, >, &, = and ' are written as \u003c and so on
+		writer.setHtmlSafe(true);
+		
+		if(!compact) {
+			writer.setIndent(INDENT);
 		}
 		
-		root.add("paths", paths);
-		
-		out.write(gson.toJson(root).getBytes());
+		writer.setSerializeNulls(!compact);
 	}
 	
-	private JsonObject createInfo(APIDefinition api) {
-		JsonObject info = new JsonObject();
-		
-		info.addProperty("title", api.getTitle());
-		info.addProperty("version", api.getVersion());
-		
-		return info;
+	@Override
+	public void beginObject() throws IOException {
+		writer.beginObject();
 	}
 	
-	private JsonArray createServers(String servers) {
-		try {
-			return gson.fromJson(servers, JsonArray.class);
-		} catch (JsonSyntaxException e) {
-			System.err.println("Could not parse servers object into JSON");
-			return new JsonArray();
-		}
+	@Override
+	public void endObject() throws IOException {
+		writer.endObject();
 	}
 	
-	private JsonArray getParameters(MethodDefinition mdef) {
-		JsonArray parameters = new JsonArray();
-		// Add path parameters
-		for(String parameterName : mdef.getPathParameters().keySet()) {
-			JsonObject parameter = new JsonObject();
-			parameter.addProperty("name", parameterName);
-			parameter.addProperty("in", "path");
-			parameter.addProperty("required", true);
-			
-			parameter.add("schema", extractSchema(mdef.getPathParameters().get(parameterName)));
-			
-			String description = mdef.getParameterDescription(parameterName);
-			if(description != null) {
-				parameter.addProperty("description", description);
-			}
-			
-			parameters.add(parameter);
-		}
-		
-		return parameters;
+	@Override
+	public void beginArray() throws IOException {
+		writer.beginArray();
 	}
 	
-	private JsonObject getResponses(MethodDefinition mdef) {
-		JsonObject root = new JsonObject();
-		root.add("200", createDefaultResponse(mdef));
-		return root;
+	@Override
+	public void endArray() throws IOException {
+		writer.endArray();
 	}
 	
-	private JsonObject getRequestBody(MethodDefinition mdef) {
-		JsonObject root = new JsonObject();
-		JsonObject schema = new JsonObject();
-		
-		schema.add("schema", extractSchema(mdef.getRequestBody()));
-		
-		root.addProperty("required", true);
-		root.add("content", new JsonObject());
-		root.get("content").getAsJsonObject().add(mdef.getConsumes(), schema);
-		
-		return root;
+	@Override
+	public OutputListener name(String name) throws IOException {
+		writer.name(name);
+		return this;
 	}
 	
-	private JsonObject createDefaultResponse(MethodDefinition mdef) {
-		JsonObject root = new JsonObject();
-		JsonObject product = new JsonObject();
-		if("application/json".equals(mdef.getProduces()) && mdef.getReturnType() != null) {
-			product.add("schema", extractSchema(mdef.getReturnType()));
-		}
-		
-		root.addProperty("description", "");
-		root.add("content", new JsonObject());
-		root.get("content").getAsJsonObject().add(mdef.getProduces(), product);
-		
-		return root;
+	@Override
+	public void value(String value) throws IOException {
+		writer.value(value);
 	}
 	
-	private JsonElement extractSchema(TypeDefinition type) {
-		JsonObject obj = null;
-		
-		// TODO: Use visitor pattern here instead
-		if(type instanceof ClassDefinition) {
-			obj = extractSchemaFromClass((ClassDefinition) type);
-		} else if(type instanceof EnumDefinition) {
-			obj = extractSchemaFromEnum((EnumDefinition) type);
-		} else if(type instanceof ListDefinition) {
-			obj = extractSchemaFromList((ListDefinition) type);
-		} else if(type instanceof PrimitiveDefinition) {
-			obj = extractSchemaFromPrimitive((PrimitiveDefinition) type);
-		} else {
-			return JsonNull.INSTANCE;
-		}
-		
-		if(type.getDescription() != null) {
-			obj.addProperty("description", type.getDescription());
-		}
-		
-		return obj;
+	@Override
+	public void value(boolean value) throws IOException {
+		writer.value(value);
 	}
 	
-	private JsonObject extractSchemaFromClass(ClassDefinition clazz) {
-		JsonObject root = new JsonObject();
-		JsonObject properties = new JsonObject();
-		
-		root.addProperty("type", "object");
-		if(clazz.getDescription() != null) {
-			root.addProperty("description", clazz.getDescription());
-		}
-		
-		for(var child: clazz.getChildren().entrySet()) {
-			properties.add(child.getKey(), extractSchema(child.getValue()));
-		}
-		
-		root.add("properties", properties);
-		return root;
+	@Override
+	public void value(Number value) throws IOException {
+		writer.value(value);
 	}
 	
-	private JsonObject extractSchemaFromEnum(EnumDefinition enu) {
-		JsonObject root = new JsonObject();
-		JsonArray constants = new JsonArray();
-		
-		root.addProperty("type", "string");
-		
-		if(enu.getDescription() != null) {
-			root.addProperty("description", enu.getDescription());
-		}
-		
-		for(String key: enu.getValues().keySet()) {
-			constants.add(key);
-		}
-		
-		root.add("enum", constants);
-		return root;
+	@Override
+	public void nullValue() throws IOException {
+		writer.nullValue();
 	}
 	
-	private JsonObject extractSchemaFromList(ListDefinition list) {
-		JsonObject root = new JsonObject();
-		
-		root.addProperty("type", "array");
-		if(list.getDescription() != null) {
-			root.addProperty("description", list.getDescription());
-		}
-		
-		root.add("items", extractSchema(list.getSubType()));
-		return root;
-	}
-	
-	private JsonObject extractSchemaFromPrimitive(PrimitiveDefinition primitive) {
-		JsonObject root = new JsonObject();
-		switch(primitive.getType()) {
-			case "byte":
-			case "short":
-			case "int":
-			case "long":
-				root.addProperty("type", "integer");
-				break;
-			case "boolean":
-				root.addProperty("type", "boolean");
-				break;
-			case "float":
-			case "double":
-				root.addProperty("type", "number");
-				break;
-			case "char":
-				root.addProperty("maxLength", 1);
-			case "string":
-				root.addProperty("type", "string");
-				break;
-		}
+	@Override
+	public void reference(String file, String fragment) throws IOException {
+		writer.value(fragment == null ? file + EXTENSION : file + EXTENSION + "#" + fragment);
+	}
+	
+	@Override
+	public OutputListener detached(int depth) {
+		return new JsonOutputFormatter(new StringWriter(), compact, depth);
+	}
+	
+	@Override
+	public void splice(OutputListener fragment) throws IOException {
+		JsonOutputFormatter json = (JsonOutputFormatter) fragment;
+		String value = json.out.toString();
 		
-		return root;
+		// Fragments are rendered at the root, indent them to where they are spliced in
+		writer.jsonValue(compact ? value : value.replace("\n", "\n" + INDENT.repeat(json.depth)));
+	}
+	
+	@Override
+	public void finish() throws IOException {
+		writer.flush();
 	}
 }
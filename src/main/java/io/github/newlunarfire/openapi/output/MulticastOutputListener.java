@@ -0,0 +1,108 @@
+package io.github.newlunarfire.openapi.output;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class MulticastOutputListener implements OutputListener {
+	private final List<OutputListener> listeners;
+	
+	public MulticastOutputListener(List<OutputListener> listeners) {
+		this.listeners = listeners;
+	}
+	
+	@Override
+	public void beginObject() throws IOException {
+		for(OutputListener listener : listeners) {
+			listener.beginObject();
+		}
+	}
+	
+	@Override
+	public void endObject() throws IOException {
+		for(OutputListener listener : listeners) {
+			listener.endObject();
+		}
+	}
+	
+	@Override
+	public void beginArray() throws IOException {
+		for(OutputListener listener : listeners) {
+			listener.beginArray();
+		}
+	}
+	
+	@Override
+	public void endArray() throws IOException {
+		for(OutputListener listener : listeners) {
+			listener.endArray();
+		}
+	}
+	
+	@Override
+	public OutputListener name(String name) throws IOException {
+		for(OutputListener listener : listeners) {
+			listener.name(name);
+		}
+		
+		return this;
+	}
+	
+	@Override
+	public void value(String value) throws IOException {
+		for(OutputListener listener : listeners) {
+			listener.value(value);
+		}
+	}
+	
+	@Override
+	public void value(boolean value) throws IOException {
+		for(OutputListener listener : listeners) {
+			listener.value(value);
+		}
+	}
+	
+	@Override
+	public void value(Number value) throws IOException {
+		for(OutputListener listener : listeners) {
+			listener.value(value);
+		}
+	}
+	
+	@Override
+	public void nullValue() throws IOException {
+		for(OutputListener listener : listeners) {
+			listener.nullValue();
+		}
+	}
+	
+	@Override
+	public void reference(String file, String fragment) throws IOException {
+		for(OutputListener listener : listeners) {
+			listener.reference(file, fragment);
+		}
+	}
+	
+	@Override
+	public OutputListener detached(int depth) {
+		return new MulticastOutputListener(listeners.stream()
+				.map(listener -> listener.detached(depth))
+				.collect(Collectors.toList()));
+	}
+	
+	@Override
+	public void splice(OutputListener fragment) throws IOException {
+		List<OutputListener> fragments = ((MulticastOutputListener) fragment).listeners;
+		
+		for(int i = 0; i < listeners.size(); i++) {
+			listeners.get(i).splice(fragments.get(i));
+		}
+	}
+	
+	@Override
+	public void finish() throws IOException {
+		for(OutputListener listener : listeners) {
+			listener.finish();
+		}
+	}
+}
@@ -0,0 +1,173 @@
+package io.github.newlunarfire.openapi.output;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Opens the files of a document in every requested format. Files are written atomically and only replaced when their content changes.
+ */
+public class OutputDirectory implements Closeable {
+	public static final String DOCUMENT_NAME = "openapi";
+	public static final String FORMAT_JSON = "json";
+	public static final String FORMAT_YAML = "yaml";
+	
+	private static final String GZIP_EXTENSION = ".gz";
+	private static final String DIGEST_EXTENSION = ".sha256";
+	private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+	
+	private final Path directory;
+	private final List<String> formats;
+	private final List<AtomicFileOutputStream> files = new ArrayList<AtomicFileOutputStream>();
+	private final List<OutputStream> streams = new ArrayList<OutputStream>();
+	private final Set<Path> written = new HashSet<Path>();
+	
+	// No whitespace and no null values in JSON
+	@Getter
+	@Setter
+	private boolean compact = false;
+	
+	// Also write a gzip-compressed copy of each file in the same pass
+	@Getter
+	@Setter
+	private boolean gzip = false;
+	
+	@Getter
+	@Setter
+	private UnaryOperator<OutputStream> streamWrapper = UnaryOperator.identity();
+	
+	@Getter
+	private int changed = 0;
+	
+	public OutputDirectory(Path directory, List<String> formats) {
+		this.directory = directory;
+		this.formats = formats;
+	}
+	
+	/**
+	 * Opens the file with the given name, relative to the directory and without extension, in each format.
+	 */
+	public OutputListener open(String name) throws IOException {
+		final Path base = directory.resolve(name);
+		final List<OutputListener> listeners = new ArrayList<OutputListener>();
+		Files.createDirectories(base.getParent());
+		
+		for(String format : formats) {
+			Path outputFile = base.resolveSibling(base.getFileName() + "." + format);
+			AtomicFileOutputStream file = new AtomicFileOutputStream(outputFile);
+			OutputStream out = file;
+			files.add(file);
+			written.add(outputFile);
+			
+			// Closing the tee closes both files
+			if(gzip) {
+				Path gzipFile = outputFile.resolveSibling(outputFile.getFileName() + GZIP_EXTENSION);
+				AtomicFileOutputStream compressed = new AtomicFileOutputStream(gzipFile);
+				files.add(compressed);
+				written.add(gzipFile);
+				out = new TeeOutputStream(file, new GZIPOutputStream(compressed, GZIP_BUFFER_SIZE));
+			}
+			
+			out = streamWrapper.apply(out);
+			streams.add(out);
+			listeners.add(FORMAT_YAML.equals(format) ? new YamlOutputFormatter(out) : new JsonOutputFormatter(out, compact));
+		}
+		
+		return listeners.size() == 1 ? listeners.get(0) : new MulticastOutputListener(listeners);
+	}
+	
+	/**
+	 * Publishes every file opened since the last commit.
+	 */
+	public void commit() throws IOException {
+		files.forEach(AtomicFileOutputStream::commit);
+		closeAll();
+	}
+	
+	/**
+	 * Deletes the files of a subdirectory that were not written by this run, such as the shards of removed resources.
+	 */
+	public void removeStale(String subdirectory) throws IOException {
+		final Path stale = directory.resolve(subdirectory);
+		
+		if(!Files.isDirectory(stale)) {
+			return;
+		}
+		
+		final List<Path> candidates;
+		
+		try(Stream<Path> children = Files.list(stale)) {
+			candidates = children.filter(Files::isRegularFile).collect(Collectors.toList());
+		}
+		
+		for(Path file : candidates) {
+			String fileName = file.getFileName().toString();
+			Path published = fileName.endsWith(DIGEST_EXTENSION) ? file.resolveSibling(fileName.substring(0, fileName.length() - DIGEST_EXTENSION.length())) : file;
+			
+			if(!written.contains(published) && isOutputFile(published.getFileName().toString())) {
+				Files.delete(file);
+			}
+		}
+	}
+	
+	@Override
+	public void close() throws IOException {
+		// Anything that was not committed is discarded
+		closeAll();
+	}
+	
+	private boolean isOutputFile(String fileName) {
+		String name = fileName.endsWith(GZIP_EXTENSION) ? fileName.substring(0, fileName.length() - GZIP_EXTENSION.length()) : fileName;
+		return name.endsWith("." + FORMAT_JSON) || name.endsWith("." + FORMAT_YAML);
+	}
+	
+	private void closeAll() throws IOException {
+		IOException failure = null;
+		
+		for(Closeable closeable : streams) {
+			failure = close(closeable, failure);
+		}
+		
+		for(AtomicFileOutputStream file : files) {
+			failure = close(file, failure);
+			
+			if(file.isChanged()) {
+				changed++;
+			}
+		}
+		
+		streams.clear();
+		files.clear();
+		
+		if(failure != null) {
+			throw failure;
+		}
+	}
+	
+	private static IOException close(Closeable closeable, IOException failure) {
+		try {
+			closeable.close();
+		} catch (IOException e) {
+			if(failure == null) {
+				return e;
+			}
+			
+			failure.addSuppressed(e);
+		}
+		
+		return failure;
+	}
+}
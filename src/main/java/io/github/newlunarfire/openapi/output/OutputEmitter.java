@@ -0,0 +1,652 @@
+package io.github.newlunarfire.openapi.output;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSyntaxException;
+
+import io.github.newlunarfire.openapi.defs.APIDefinition;
+import io.github.newlunarfire.openapi.defs.MethodDefinition;
+import io.github.newlunarfire.openapi.defs.ResourceDefinition;
+import io.github.newlunarfire.openapi.defs.type.ClassDefinition;
+import io.github.newlunarfire.openapi.defs.type.EnumDefinition;
+import io.github.newlunarfire.openapi.defs.type.ListDefinition;
+import io.github.newlunarfire.openapi.defs.type.MapDefinition;
+import io.github.newlunarfire.openapi.defs.type.PrimitiveDefinition;
+import io.github.newlunarfire.openapi.defs.type.ReferenceDefinition;
+import io.github.newlunarfire.openapi.defs.type.TypeDefinition;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Walks an {@link APIDefinition} once and sends the OpenAPI document to an {@link OutputListener}.
+ * Use a {@link MulticastOutputListener} to produce several formats from the same traversal.
+ */
+public class OutputEmitter {
+	private static final String SCHEMA_REF_PREFIX = "#/components/schemas/";
+	private static final String PATHS_DIRECTORY = "paths";
+	private static final String SCHEMAS_DIRECTORY = "schemas";
+	// Operations are nested in root > paths > path item
+	private static final int OPERATION_DEPTH = 3;
+	// Path shards hold the path items at their root
+	private static final int SHARD_OPERATION_DEPTH = 2;
+	private static final Pattern UNSAFE_FILE_NAME_CHARACTERS = Pattern.compile("[^A-Za-z0-9._-]+");
+	private static final int OPERATIONS_PER_THREAD_BATCH = 64;
+	
+	private static Gson gson = new Gson();
+	private APIDefinition api;
+	
+	@Getter
+	@Setter
+	private int parallelism = 1;
+	
+	// Schema name to shard file name, only set while emitting shards
+	private Map<String, String> schemaFiles;
+	private String schemaDirectory;
+	// Renders operations when parallelism is above 1, created for the first path items and kept until the end
+	private ForkJoinPool pool;
+	
+	public OutputEmitter(APIDefinition api) {
+		this.api = api;
+	}
+	
+	public void emit(OutputListener listener) throws IOException {
+		try {
+			beginDocument(listener);
+			writePathItems(listener, groupByPath(api.getResources()), OPERATION_DEPTH);
+			endDocument(listener);
+		} finally {
+			shutdownPool();
+		}
+	}
+	
+	/**
+	 * Writes everything up to the path items, so resources can be written as they are scanned with {@link #writeResources}.
+	 */
+	public void beginDocument(OutputListener listener) throws IOException {
+		listener.beginObject();
+		listener.name("openapi").value("3.0.0");
+		listener.name("info");
+		writeInfo(listener, api);
+		listener.name("servers");
+		writeServers(listener, api.getServers());
+		
+		listener.name("paths").beginObject();
+	}
+	
+	/**
+	 * Writes the path items of the given resources. Resources that share a path must be written in the same call.
+	 */
+	public void writeResources(OutputListener listener, List<ResourceDefinition> resources) throws IOException {
+		writePathItems(listener, groupByPath(resources), OPERATION_DEPTH);
+	}
+	
+	/**
+	 * Closes the paths and writes the schemas of the definition, which must be complete by now.
+	 */
+	public void endDocument(OutputListener listener) throws IOException {
+		shutdownPool();
+		listener.endObject();
+		
+		if(!api.getSchemas().isEmpty()) {
+			listener.name("components");
+			writeComponents(listener, api);
+		}
+		
+		listener.endObject();
+		listener.finish();
+	}
+	
+	/**
+	 * Writes a root document that references one file per resource base path and one file per schema,
+	 * so consumers can load only the parts they need.
+	 */
+	public void emitSharded(OutputDirectory output) throws IOException {
+		final Map<String, List<MethodDefinition>> paths = groupByPath(api.getResources());
+		final Map<String, Map<String, List<MethodDefinition>>> shards = groupByShard(api, paths);
+		
+		this.schemaFiles = new LinkedHashMap<String, String>();
+		final Set<String> usedSchemaFiles = new HashSet<String>();
+		for(String schema : api.getSchemas().keySet()) {
+			schemaFiles.put(schema, fileName(schema, usedSchemaFiles));
+		}
+		
+		try {
+			OutputListener root = output.open(OutputDirectory.DOCUMENT_NAME);
+			root.beginObject();
+			root.name("openapi").value("3.0.0");
+			root.name("info");
+			writeInfo(root, api);
+			root.name("servers");
+			writeServers(root, api.getServers());
+			
+			root.name("paths").beginObject();
+			for(var shard : shards.entrySet()) {
+				for(String path : shard.getValue().keySet()) {
+					root.name(path).beginObject();
+					root.name("$ref");
+					root.reference(PATHS_DIRECTORY + "/" + shard.getKey(), toPointer(path));
+					root.endObject();
+				}
+			}
+			root.endObject();
+			
+			if(!schemaFiles.isEmpty()) {
+				root.name("components").beginObject();
+				root.name("schemas").beginObject();
+				for(var schema : schemaFiles.entrySet()) {
+					root.name(schema.getKey()).beginObject();
+					root.name("$ref");
+					root.reference(SCHEMAS_DIRECTORY + "/" + schema.getValue(), null);
+					root.endObject();
+				}
+				root.endObject();
+				root.endObject();
+			}
+			
+			root.endObject();
+			root.finish();
+			output.commit();
+			
+			this.schemaDirectory = "../" + SCHEMAS_DIRECTORY + "/";
+			for(var shard : shards.entrySet()) {
+				OutputListener listener = output.open(PATHS_DIRECTORY + "/" + shard.getKey());
+				writePaths(listener, shard.getValue(), SHARD_OPERATION_DEPTH);
+				listener.finish();
+				output.commit();
+			}
+			
+			this.schemaDirectory = "";
+			for(var schema : api.getSchemas().entrySet()) {
+				OutputListener listener = output.open(SCHEMAS_DIRECTORY + "/" + schemaFiles.get(schema.getKey()));
+				writeSchema(listener, schema.getValue());
+				listener.finish();
+				output.commit();
+			}
+			
+			output.removeStale(PATHS_DIRECTORY);
+			output.removeStale(SCHEMAS_DIRECTORY);
+		} finally {
+			this.schemaFiles = null;
+			this.schemaDirectory = null;
+			shutdownPool();
+		}
+	}
+	
+	private Map<String, Map<String, List<MethodDefinition>>> groupByShard(APIDefinition api, Map<String, List<MethodDefinition>> paths) {
+		final Map<String, Map<String, List<MethodDefinition>>> shards = new LinkedHashMap<String, Map<String, List<MethodDefinition>>>();
+		final Map<String, String> basePathFiles = new HashMap<String, String>();
+		final Set<String> usedFiles = new HashSet<String>();
+		
+		final Map<String, String> pathBasePaths = new HashMap<String, String>();
+		
+		// A path item goes to the shard of the first resource that declares it
+		for(ResourceDefinition rdef : api.getResources()) {
+			for(MethodDefinition mdef : rdef.getMethods()) {
+				pathBasePaths.putIfAbsent(PathTrie.normalize(rdef.getBasePath(), mdef.getPath()), String.valueOf(rdef.getBasePath()));
+			}
+		}
+		
+		for(var path : paths.entrySet()) {
+			String shard = basePathFiles.computeIfAbsent(pathBasePaths.get(path.getKey()), basePath -> fileName(basePath, usedFiles));
+			shards.computeIfAbsent(shard, s -> new LinkedHashMap<String, List<MethodDefinition>>()).put(path.getKey(), path.getValue());
+		}
+		
+		return shards;
+	}
+	
+	private static String fileName(String name, Set<String> used) {
+		String base = UNSAFE_FILE_NAME_CHARACTERS.matcher(name).replaceAll("_").replaceAll("^[_.]+|_+$", "");
+		
+		if(base.isEmpty()) {
+			base = "root";
+		}
+		
+		// Names must stay distinct on case-insensitive file systems too
+		String fileName = base;
+		for(int i = 2; !used.add(fileName.toLowerCase(Locale.ROOT)); i++) {
+			fileName = base + "-" + i;
+		}
+		
+		return fileName;
+	}
+	
+	private static String toPointer(String path) {
+		final String token = path.replace("~", "~0").replace("/", "~1");
+		final StringBuilder pointer = new StringBuilder("/");
+		
+		// The pointer is used as a URI fragment, so characters such as { and } are percent-encoded
+		for(byte b : token.getBytes(StandardCharsets.UTF_8)) {
+			char c = (char) (b & 0xff);
+			
+			if((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || "-._~!$&'()*+,;=:@/?".indexOf(c) >= 0) {
+				pointer.append(c);
+			} else {
+				pointer.append(String.format("%%%02X", b & 0xff));
+			}
+		}
+		
+		return pointer.toString();
+	}
+	
+	private void writePaths(OutputListener listener, Map<String, List<MethodDefinition>> paths, int operationDepth) throws IOException {
+		listener.beginObject();
+		writePathItems(listener, paths, operationDepth);
+		listener.endObject();
+	}
+	
+	private void writePathItems(OutputListener listener, Map<String, List<MethodDefinition>> paths, int operationDepth) throws IOException {
+		if(parallelism > 1) {
+			writePathItemsParallel(listener, paths, operationDepth);
+			return;
+		}
+		
+		for(var path : paths.entrySet()) {
+			listener.name(path.getKey()).beginObject();
+			
+			for(MethodDefinition mdef : path.getValue()) {
+				listener.name(mdef.getVerb().toLowerCase());
+				writeOperation(listener, mdef);
+			}
+			
+			listener.endObject();
+		}
+	}
+	
+	private void writePathItemsParallel(OutputListener listener, Map<String, List<MethodDefinition>> paths, int operationDepth) throws IOException {
+		final List<MethodDefinition> operations = paths.values().stream()
+				.flatMap(List::stream)
+				.collect(Collectors.toList());
+		final int batchSize = parallelism * OPERATIONS_PER_THREAD_BATCH;
+		List<OutputListener> fragments = null;
+		int next = 0;
+		
+		// Streaming writes path items once per group of resources, they all share one pool
+		if(pool == null) {
+			pool = new ForkJoinPool(parallelism);
+		}
+		
+		for(var path : paths.entrySet()) {
+			listener.name(path.getKey()).beginObject();
+			
+			for(MethodDefinition mdef : path.getValue()) {
+				// Render a batch at a time so only a bounded number of fragments is held in memory
+				if(next % batchSize == 0) {
+					fragments = renderOperations(listener, operations.subList(next, Math.min(next + batchSize, operations.size())), operationDepth);
+				}
+				
+				listener.name(mdef.getVerb().toLowerCase());
+				listener.splice(fragments.get(next % batchSize));
+				next++;
+			}
+			
+			listener.endObject();
+		}
+	}
+	
+	private void shutdownPool() {
+		if(pool != null) {
+			pool.shutdown();
+			pool = null;
+		}
+	}
+	
+	private List<OutputListener> renderOperations(OutputListener listener, List<MethodDefinition> batch, int operationDepth) throws IOException {
+		try {
+			return pool.submit(() -> batch.parallelStream()
+					.map(mdef -> renderOperation(listener.detached(operationDepth), mdef))
+					.collect(Collectors.toList())
+			).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while rendering operations", e);
+		} catch (ExecutionException e) {
+			if(e.getCause() instanceof UncheckedIOException) {
+				throw ((UncheckedIOException) e.getCause()).getCause();
+			}
+			
+			throw new IOException("Could not render operations", e.getCause());
+		}
+	}
+	
+	private OutputListener renderOperation(OutputListener fragment, MethodDefinition mdef) {
+		try {
+			writeOperation(fragment, mdef);
+			fragment.finish();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		
+		return fragment;
+	}
+	
+	private Map<String, List<MethodDefinition>> groupByPath(List<ResourceDefinition> resources) {
+		PathTrie<MethodDefinition> paths = new PathTrie<MethodDefinition>();
+		
+		for(ResourceDefinition rdef : resources) {
+			for(MethodDefinition mdef: rdef.getMethods()) {
+				paths.add(rdef.getBasePath(), mdef.getPath(), mdef.getVerb(), mdef);
+			}
+		}
+		
+		return paths.toMap();
+	}
+	
+	private void writeOperation(OutputListener listener, MethodDefinition mdef) throws IOException {
+		listener.beginObject();
+		
+		if(mdef.getBody() != null) {
+			listener.name("description").value(mdef.getBody());
+		}
+		
+		listener.name("parameters");
+		writeParameters(listener, mdef);
+		
+		if("POST".equals(mdef.getVerb())) {
+			listener.name("requestBody");
+			writeRequestBody(listener, mdef);
+		}
+		
+		listener.name("responses");
+		writeResponses(listener, mdef);
+		
+		listener.endObject();
+	}
+	
+	private void writeInfo(OutputListener listener, APIDefinition api) throws IOException {
+		listener.beginObject();
+		listener.name("title").value(api.getTitle());
+		listener.name("version").value(api.getVersion());
+		listener.endObject();
+	}
+	
+	private void writeComponents(OutputListener listener, APIDefinition api) throws IOException {
+		listener.beginObject();
+		listener.name("schemas").beginObject();
+		
+		for(var schema : api.getSchemas().entrySet()) {
+			listener.name(schema.getKey());
+			writeSchema(listener, schema.getValue());
+		}
+		
+		listener.endObject();
+		listener.endObject();
+	}
+	
+	private void writeServers(OutputListener listener, String servers) throws IOException {
+		JsonArray array;
+		
+		try {
+			array = gson.fromJson(servers, JsonArray.class);
+		} catch (JsonSyntaxException e) {
+			System.err.println("Could not parse servers object into JSON");
+			array = new JsonArray();
+		}
+		
+		if(array == null) {
+			listener.nullValue();
+		} else {
+			writeJson(listener, array);
+		}
+	}
+	
+	private void writeJson(OutputListener listener, JsonElement element) throws IOException {
+		if(element.isJsonObject()) {
+			listener.beginObject();
+			for(var member : element.getAsJsonObject().entrySet()) {
+				listener.name(member.getKey());
+				writeJson(listener, member.getValue());
+			}
+			listener.endObject();
+		} else if(element.isJsonArray()) {
+			listener.beginArray();
+			for(JsonElement item : element.getAsJsonArray()) {
+				writeJson(listener, item);
+			}
+			listener.endArray();
+		} else if(element.isJsonNull()) {
+			listener.nullValue();
+		} else {
+			JsonPrimitive primitive = element.getAsJsonPrimitive();
+			
+			if(primitive.isBoolean()) {
+				listener.value(primitive.getAsBoolean());
+			} else if(primitive.isNumber()) {
+				listener.value(primitive.getAsNumber());
+			} else {
+				listener.value(primitive.getAsString());
+			}
+		}
+	}
+	
+	private void writeParameters(OutputListener listener, MethodDefinition mdef) throws IOException {
+		listener.beginArray();
+		
+		// Add path parameters
+		for(var parameter : mdef.getPathParameters().entrySet()) {
+			listener.beginObject();
+			listener.name("name").value(parameter.getKey());
+			listener.name("in").value("path");
+			listener.name("required").value(true);
+			
+			listener.name("schema");
+			writeSchema(listener, parameter.getValue());
+			
+			String description = mdef.getParameterDescription(parameter.getKey());
+			if(description != null) {
+				listener.name("description").value(description);
+			}
+			
+			listener.endObject();
+		}
+		
+		listener.endArray();
+	}
+	
+	private void writeResponses(OutputListener listener, MethodDefinition mdef) throws IOException {
+		listener.beginObject();
+		listener.name("200");
+		writeDefaultResponse(listener, mdef);
+		listener.endObject();
+	}
+	
+	private void writeRequestBody(OutputListener listener, MethodDefinition mdef) throws IOException {
+		listener.beginObject();
+		listener.name("required").value(true);
+		listener.name("content").beginObject();
+		listener.name(mdef.getConsumes()).beginObject();
+		listener.name("schema");
+		writeSchema(listener, mdef.getRequestBody());
+		listener.endObject();
+		listener.endObject();
+		listener.endObject();
+	}
+	
+	private void writeDefaultResponse(OutputListener listener, MethodDefinition mdef) throws IOException {
+		listener.beginObject();
+		listener.name("description").value("");
+		listener.name("content").beginObject();
+		listener.name(mdef.getProduces()).beginObject();
+		
+		if("application/json".equals(mdef.getProduces()) && mdef.getReturnType() != null) {
+			listener.name("schema");
+			writeSchema(listener, mdef.getReturnType());
+		}
+		
+		listener.endObject();
+		listener.endObject();
+		listener.endObject();
+	}
+	
+	private void writeSchema(OutputListener listener, TypeDefinition type) throws IOException {
+		// TODO: Use visitor pattern here instead
+		if(type instanceof ClassDefinition) {
+			writeSchemaFromClass(listener, (ClassDefinition) type);
+		} else if(type instanceof EnumDefinition) {
+			writeSchemaFromEnum(listener, (EnumDefinition) type);
+		} else if(type instanceof ListDefinition) {
+			writeSchemaFromList(listener, (ListDefinition) type);
+		} else if(type instanceof MapDefinition) {
+			writeSchemaFromMap(listener, (MapDefinition) type);
+		} else if(type instanceof PrimitiveDefinition) {
+			writeSchemaFromPrimitive(listener, (PrimitiveDefinition) type);
+		} else if(type instanceof ReferenceDefinition) {
+			writeSchemaFromReference(listener, (ReferenceDefinition) type);
+		} else {
+			listener.nullValue();
+		}
+	}
+	
+	private void writeDescription(OutputListener listener, TypeDefinition type) throws IOException {
+		if(type.getDescription() != null) {
+			listener.name("description").value(type.getDescription());
+		}
+	}
+	
+	private void writeSchemaFromClass(OutputListener listener, ClassDefinition clazz) throws IOException {
+		listener.beginObject();
+		
+		if(clazz.getParent() != null) {
+			writeDescription(listener, clazz);
+			listener.name("allOf").beginArray();
+			writeSchema(listener, clazz.getParent());
+			listener.beginObject();
+		}
+		
+		listener.name("type").value("object");
+		
+		if(clazz.getParent() == null) {
+			writeDescription(listener, clazz);
+		}
+		
+		listener.name("properties").beginObject();
+		for(var child: clazz.getChildren().entrySet()) {
+			listener.name(child.getKey());
+			writeSchema(listener, child.getValue());
+		}
+		listener.endObject();
+		
+		if(clazz.getParent() != null) {
+			listener.endObject();
+			listener.endArray();
+		}
+		
+		listener.endObject();
+	}
+	
+	private void writeSchemaFromEnum(OutputListener listener, EnumDefinition enu) throws IOException {
+		listener.beginObject();
+		listener.name("type").value("string");
+		writeDescription(listener, enu);
+		
+		listener.name("enum").beginArray();
+		for(String key: enu.getValues().keySet()) {
+			listener.value(key);
+		}
+		listener.endArray();
+		
+		listener.endObject();
+	}
+	
+	private void writeSchemaFromList(OutputListener listener, ListDefinition list) throws IOException {
+		listener.beginObject();
+		listener.name("type").value("array");
+		writeDescription(listener, list);
+		
+		listener.name("items");
+		writeSchema(listener, list.getSubType());
+		
+		if(list.isUniqueItems()) {
+			listener.name("uniqueItems").value(true);
+		}
+		
+		listener.endObject();
+	}
+	
+	private void writeSchemaFromMap(OutputListener listener, MapDefinition map) throws IOException {
+		listener.beginObject();
+		listener.name("type").value("object");
+		writeDescription(listener, map);
+		
+		// Keys are always strings in JSON
+		listener.name("additionalProperties");
+		writeSchema(listener, map.getValueType());
+		
+		listener.endObject();
+	}
+	
+	private void writeSchemaFromReference(OutputListener listener, ReferenceDefinition reference) throws IOException {
+		if(reference.getDescription() != null) {
+			// Siblings of $ref are ignored by OpenAPI 3.0, a documented reference is wrapped in allOf
+			listener.beginObject();
+			writeDescription(listener, reference);
+			listener.name("allOf").beginArray();
+			writeReference(listener, reference);
+			listener.endArray();
+			listener.endObject();
+		} else {
+			writeReference(listener, reference);
+		}
+	}
+	
+	private void writeReference(OutputListener listener, ReferenceDefinition reference) throws IOException {
+		listener.beginObject();
+		listener.name("$ref");
+		
+		if(schemaFiles == null) {
+			listener.value(SCHEMA_REF_PREFIX + reference.getName());
+		} else {
+			listener.reference(schemaDirectory + schemaFiles.get(reference.getName()), null);
+		}
+		
+		listener.endObject();
+	}
+	
+	private void writeSchemaFromPrimitive(OutputListener listener, PrimitiveDefinition primitive) throws IOException {
+		listener.beginObject();
+		
+		switch(primitive.getType()) {
+			case "byte":
+			case "short":
+			case "int":
+			case "long":
+				listener.name("type").value("integer");
+				break;
+			case "boolean":
+				listener.name("type").value("boolean");
+				break;
+			case "float":
+			case "double":
+				listener.name("type").value("number");
+				break;
+			case "byte[]":
+				listener.name("type").value("string");
+				listener.name("format").value("byte");
+				break;
+			case "char":
+				listener.name("maxLength").value(1);
+			case "string":
+				listener.name("type").value("string");
+				break;
+		}
+		
+		writeDescription(listener, primitive);
+		listener.endObject();
+	}
+}
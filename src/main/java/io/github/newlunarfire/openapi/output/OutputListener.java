@@ -0,0 +1,44 @@
+package io.github.newlunarfire.openapi.output;
+
+import java.io.IOException;
+
+/**
+ * Receives the document as a stream of structural events, in the order of the JSON tree.
+ */
+public interface OutputListener {
+	void beginObject() throws IOException;
+	
+	void endObject() throws IOException;
+	
+	void beginArray() throws IOException;
+	
+	void endArray() throws IOException;
+	
+	OutputListener name(String name) throws IOException;
+	
+	void value(String value) throws IOException;
+	
+	void value(boolean value) throws IOException;
+	
+	void value(Number value) throws IOException;
+	
+	void nullValue() throws IOException;
+	
+	/**
+	 * Writes a relative reference to another file of the same document, the listener appends the extension of its format.
+	 */
+	void reference(String file, String fragment) throws IOException;
+	
+	/**
+	 * Creates a listener that renders a single value on its own, so it can be rendered on another thread
+	 * and later passed to {@link #splice(OutputListener)}. The depth is the number of containers the value is nested in.
+	 */
+	OutputListener detached(int depth);
+	
+	/**
+	 * Writes a value rendered by a listener returned from {@link #detached(int)}.
+	 */
+	void splice(OutputListener fragment) throws IOException;
+	
+	void finish() throws IOException;
+}
@@ -0,0 +1,147 @@
+package io.github.newlunarfire.openapi.output;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import lombok.Getter;
+
+/**
+ * Groups operations by path, storing paths segment by segment. Paths are normalized first, so "/users/" + "{id}" and
+ * "/users" + "/{id}" are the same path. Template variables only count by their position, so "/a/{x}" and "/a/{y}"
+ * are detected as ambiguous.
+ */
+public class PathTrie<T> {
+	private static final String TEMPLATE_KEY = "{}";
+	
+	// Literal segments in order, then the template variable
+	private static final Comparator<String> SEGMENT_ORDER = Comparator.<String, Boolean>comparing(TEMPLATE_KEY::equals).thenComparing(Comparator.naturalOrder());
+	
+	private final Node<T> root = new Node<T>();
+	
+	// Duplicate and ambiguous routes, in the order they were found
+	@Getter
+	private final List<String> conflicts = new ArrayList<String>();
+	
+	/**
+	 * Joins a base path and a method path with single slashes, without a trailing slash. Regular expressions of
+	 * template variables are removed, "{id: [0-9]+}" becomes "{id}".
+	 */
+	public static String normalize(String basePath, String path) {
+		final StringBuilder normalized = new StringBuilder();
+		
+		for(String segment : segments((basePath == null ? "" : basePath) + "/" + (path == null ? "" : path))) {
+			normalized.append('/').append(segment);
+		}
+		
+		return normalized.length() == 0 ? "/" : normalized.toString();
+	}
+	
+	/**
+	 * Adds an operation and returns the normalized path it was added to. An operation with the same path and verb as a
+	 * previous one is reported as a conflict and left out.
+	 */
+	public String add(String basePath, String path, String verb, T operation) {
+		final String normalized = normalize(basePath, path);
+		Node<T> node = root;
+		
+		for(String segment : segments(normalized)) {
+			node = node.children.computeIfAbsent(isTemplate(segment) ? TEMPLATE_KEY : segment, key -> new Node<T>());
+		}
+		
+		if(!node.operations.containsKey(normalized)) {
+			if(!node.operations.isEmpty()) {
+				conflicts.add("Path " + normalized + " is ambiguous with " + node.operations.keySet().iterator().next());
+			}
+			
+			node.operations.put(normalized, new ArrayList<T>());
+		}
+		
+		final String previous = node.verbs.putIfAbsent(verb, normalized);
+		
+		if(normalized.equals(previous)) {
+			// A path item has one operation per verb, the first one is kept
+			conflicts.add("Operation " + verb + " " + normalized + " is declared more than once, only the first one is documented");
+			return normalized;
+		}
+		
+		node.operations.get(normalized).add(operation);
+		return normalized;
+	}
+	
+	/**
+	 * Returns the operations of each path, paths sorted by segment with template variables after literal segments.
+	 */
+	public Map<String, List<T>> toMap() {
+		final Map<String, List<T>> paths = new LinkedHashMap<String, List<T>>();
+		collect(root, paths);
+		return paths;
+	}
+	
+	private void collect(Node<T> node, Map<String, List<T>> paths) {
+		paths.putAll(node.operations);
+		
+		for(Node<T> child : node.children.values()) {
+			collect(child, paths);
+		}
+	}
+	
+	private static boolean isTemplate(String segment) {
+		return segment.startsWith("{") && segment.endsWith("}");
+	}
+	
+	/**
+	 * Splits a path on slashes outside of template variables, whose regular expressions can contain slashes.
+	 */
+	private static List<String> segments(String path) {
+		final List<String> segments = new ArrayList<String>();
+		final StringBuilder segment = new StringBuilder();
+		int depth = 0;
+		boolean variable = false;
+		
+		for(int i = 0; i < path.length(); i++) {
+			final char c = path.charAt(i);
+			
+			if(c == '/' && depth == 0) {
+				addSegment(segments, segment);
+				continue;
+			}
+			
+			if(c == '{' && depth++ == 0) {
+				variable = true;
+			} else if(c == '}' && depth > 0 && --depth == 0) {
+				variable = false;
+			} else if(c == ':' && depth == 1) {
+				// Everything up to the closing brace is the regular expression
+				variable = false;
+			}
+			
+			if(variable || depth == 0) {
+				segment.append(c);
+			}
+		}
+		
+		addSegment(segments, segment);
+		return segments;
+	}
+	
+	private static void addSegment(List<String> segments, StringBuilder segment) {
+		final String value = segment.toString().replaceAll("\\s+}", "}");
+		
+		if(!value.isEmpty()) {
+			segments.add(value);
+		}
+		
+		segment.setLength(0);
+	}
+	
+	private static class Node<T> {
+		private final Map<String, Node<T>> children = new TreeMap<String, Node<T>>(SEGMENT_ORDER);
+		// Paths ending at this node by their template, more than one is ambiguous
+		private final Map<String, List<T>> operations = new LinkedHashMap<String, List<T>>();
+		private final Map<String, String> verbs = new LinkedHashMap<String, String>();
+	}
+}
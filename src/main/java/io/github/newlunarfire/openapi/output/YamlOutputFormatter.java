@@ -0,0 +1,257 @@
+package io.github.newlunarfire.openapi.output;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Streams the document as block style YAML. Containers are only opened once their first entry is known,
+ * so empty objects and arrays can still be written as {} and [].
+ */
+public class YamlOutputFormatter implements OutputListener {
+	private static final String INDENT = "  ";
+	private static final String EXTENSION = ".yaml";
+	private static final Pattern PLAIN_SCALAR = Pattern.compile("[A-Za-z_/][A-Za-z0-9_ ./+-]*");
+	private static final Set<String> RESERVED_SCALARS = Set.of("true", "false", "null", "yes", "no", "on", "off", "y", "n");
+	
+	private final Writer out;
+	private final int depth;
+	private final boolean detached;
+	private final Deque<Frame> frames = new ArrayDeque<Frame>();
+	private String name;
+	// Set when a detached value fits on the line of its key
+	private String inlineValue;
+	
+	public YamlOutputFormatter(OutputStream out) {
+		this(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)), 0, false);
+	}
+	
+	private YamlOutputFormatter(Writer out, int depth, boolean detached) {
+		this.out = out;
+		this.depth = depth;
+		this.detached = detached;
+	}
+	
+	@Override
+	public void beginObject() throws IOException {
+		begin(false);
+	}
+	
+	@Override
+	public void endObject() throws IOException {
+		end("{}");
+	}
+	
+	@Override
+	public void beginArray() throws IOException {
+		begin(true);
+	}
+	
+	@Override
+	public void endArray() throws IOException {
+		end("[]");
+	}
+	
+	@Override
+	public OutputListener name(String name) throws IOException {
+		this.name = name;
+		return this;
+	}
+	
+	@Override
+	public void value(String value) throws IOException {
+		scalar(value == null ? "null" : quote(value));
+	}
+	
+	@Override
+	public void value(boolean value) throws IOException {
+		scalar(String.valueOf(value));
+	}
+	
+	@Override
+	public void value(Number value) throws IOException {
+		scalar(value == null ? "null" : value.toString());
+	}
+	
+	@Override
+	public void nullValue() throws IOException {
+		scalar("null");
+	}
+	
+	@Override
+	public void reference(String file, String fragment) throws IOException {
+		value(fragment == null ? file + EXTENSION : file + EXTENSION + "#" + fragment);
+	}
+	
+	@Override
+	public OutputListener detached(int depth) {
+		return new YamlOutputFormatter(new StringWriter(), depth, true);
+	}
+	
+	@Override
+	public void splice(OutputListener fragment) throws IOException {
+		YamlOutputFormatter yaml = (YamlOutputFormatter) fragment;
+		
+		if(yaml.inlineValue != null) {
+			scalar(yaml.inlineValue);
+			return;
+		}
+		
+		Frame frame = frames.peek();
+		open(frame);
+		out.write(prefix(frame));
+		out.write("\n");
+		out.write(yaml.out.toString());
+	}
+	
+	@Override
+	public void finish() throws IOException {
+		out.flush();
+	}
+	
+	private void begin(boolean array) throws IOException {
+		Frame parent = frames.peek();
+		Frame frame = new Frame(array, parent == null ? depth + 1 : parent.level + 1);
+		
+		if(parent != null) {
+			open(parent);
+			frame.header = prefix(parent);
+			// Objects in arrays start on the line of their dash
+			frame.inline = parent.array && !array;
+		}
+		
+		frames.push(frame);
+	}
+	
+	private void end(String emptyValue) throws IOException {
+		Frame frame = frames.pop();
+		
+		if(!frame.empty) {
+			return;
+		}
+		
+		if(frame.header != null) {
+			out.write(frame.header);
+			out.write(" ");
+			out.write(emptyValue);
+			out.write("\n");
+		} else if(frames.isEmpty()) {
+			root(emptyValue);
+		}
+	}
+	
+	private void scalar(String value) throws IOException {
+		Frame frame = frames.peek();
+		
+		if(frame == null) {
+			root(value);
+			return;
+		}
+		
+		open(frame);
+		out.write(prefix(frame));
+		out.write(" ");
+		out.write(value);
+		out.write("\n");
+	}
+	
+	private void root(String value) throws IOException {
+		if(detached) {
+			inlineValue = value;
+		} else {
+			out.write(value);
+			out.write("\n");
+		}
+	}
+	
+	private void open(Frame frame) throws IOException {
+		if(frame.header != null) {
+			if(frame.inline) {
+				frame.firstIndent = frame.header + " ";
+			} else {
+				out.write(frame.header);
+				out.write("\n");
+			}
+			
+			frame.header = null;
+		}
+		
+		frame.empty = false;
+	}
+	
+	private String prefix(Frame frame) {
+		String indent = frame.firstIndent != null ? frame.firstIndent : INDENT.repeat(frame.level - 1);
+		frame.firstIndent = null;
+		
+		if(frame.array) {
+			return indent + "-";
+		}
+		
+		String key = quote(name);
+		name = null;
+		return indent + key + ":";
+	}
+	
+	private static String quote(String value) {
+		if(PLAIN_SCALAR.matcher(value).matches() && !value.endsWith(" ") && !RESERVED_SCALARS.contains(value.toLowerCase(Locale.ROOT))) {
+			return value;
+		}
+		
+		StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+		
+		for(int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			
+			switch(c) {
+				case '"':
+					quoted.append("\\\"");
+					break;
+				case '\\':
+					quoted.append("\\\\");
+					break;
+				case '\n':
+					quoted.append("\\n");
+					break;
+				case '\r':
+					quoted.append("\\r");
+					break;
+				case '\t':
+					quoted.append("\\t");
+					break;
+				default:
+					if(c < 0x20 || c == 0x7f || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+						quoted.append(String.format("\\u%04x", (int) c));
+					} else {
+						quoted.append(c);
+					}
+			}
+		}
+		
+		return quoted.append('"').toString();
+	}
+	
+	private static class Frame {
+		private final boolean array;
+		private final int level;
+		private boolean empty = true;
+		private boolean inline = false;
+		// Line to write before the first entry, null once written
+		private String header;
+		// Replaces the indentation of the first entry of an inline object
+		private String firstIndent;
+		
+		private Frame(boolean array, int level) {
+			this.array = array;
+			this.level = level;
+		}
+	}
+}
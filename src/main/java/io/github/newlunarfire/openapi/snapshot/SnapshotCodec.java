@@ -0,0 +1,351 @@
+package io.github.newlunarfire.openapi.snapshot;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.github.newlunarfire.openapi.defs.APIDefinition;
+import io.github.newlunarfire.openapi.defs.MethodDefinition;
+import io.github.newlunarfire.openapi.defs.ResourceDefinition;
+import io.github.newlunarfire.openapi.defs.type.ClassDefinition;
+import io.github.newlunarfire.openapi.defs.type.EnumDefinition;
+import io.github.newlunarfire.openapi.defs.type.ListDefinition;
+import io.github.newlunarfire.openapi.defs.type.MapDefinition;
+import io.github.newlunarfire.openapi.defs.type.MutableTypeDefinition;
+import io.github.newlunarfire.openapi.defs.type.PrimitiveDefinition;
+import io.github.newlunarfire.openapi.defs.type.ReferenceDefinition;
+import io.github.newlunarfire.openapi.defs.type.TypeDefinition;
+
+/**
+ * Binary snapshot of a scanned {@link APIDefinition}. Strings are written once and then referenced by their index
+ * in a string table, sizes and indexes are variable-length integers.
+ */
+public class SnapshotCodec {
+	private static final int MAGIC = 0x4f415353;
+	private static final int VERSION = 3;
+	
+	// String markers, indexes into the string table start after them
+	private static final int NULL_STRING = 0;
+	private static final int NEW_STRING = 1;
+	private static final int STRING_INDEX_OFFSET = 2;
+	
+	private static final int NULL_TYPE = 0;
+	private static final int CLASS_TYPE = 1;
+	private static final int ENUM_TYPE = 2;
+	private static final int LIST_TYPE = 3;
+	private static final int PRIMITIVE_TYPE = 4;
+	private static final int REFERENCE_TYPE = 5;
+	private static final int MAP_TYPE = 6;
+	
+	public static void write(APIDefinition api, OutputStream out) throws IOException {
+		new Writer(new DataOutputStream(new BufferedOutputStream(out))).writeAPI(api);
+	}
+	
+	public static APIDefinition read(InputStream in) throws IOException {
+		// Read at once, so the sizes in a corrupt snapshot can be checked against what is left of it
+		return new Reader(new DataInputStream(new ByteArrayInputStream(in.readAllBytes()))).readAPI();
+	}
+	
+	private static class Writer {
+		private final DataOutputStream out;
+		private final Map<String, Integer> strings = new HashMap<String, Integer>();
+		
+		private Writer(DataOutputStream out) {
+			this.out = out;
+		}
+		
+		private void writeAPI(APIDefinition api) throws IOException {
+			out.writeInt(MAGIC);
+			writeSize(VERSION);
+			writeString(api.getTitle());
+			writeString(api.getVersion());
+			writeString(api.getServers());
+			
+			List<ResourceDefinition> resources = api.getResources() == null ? List.of() : api.getResources();
+			writeSize(resources.size());
+			for(ResourceDefinition resource : resources) {
+				writeResource(resource);
+			}
+			
+			writeTypes(api.getSchemas());
+			out.flush();
+		}
+		
+		private void writeResource(ResourceDefinition resource) throws IOException {
+			writeString(resource.getBasePath());
+			writeSize(resource.getMethods().size());
+			
+			for(MethodDefinition method : resource.getMethods()) {
+				writeString(method.getName());
+				writeString(method.getConsumes());
+				writeString(method.getProduces());
+				writeString(method.getVerb());
+				writeString(method.getPath());
+				writeString(method.getBody());
+				writeString(method.getBlockTags());
+				writeTypes(method.getPathParameters());
+				writeStrings(method.getPathParameterDescriptions());
+				writeType(method.getReturnType());
+				writeType(method.getRequestBody());
+			}
+		}
+		
+		private void writeType(TypeDefinition type) throws IOException {
+			if(type instanceof ClassDefinition) {
+				writeSize(CLASS_TYPE);
+				writeTypes(((ClassDefinition) type).getChildren());
+				writeType(((ClassDefinition) type).getParent());
+			} else if(type instanceof EnumDefinition) {
+				writeSize(ENUM_TYPE);
+				writeStrings(((EnumDefinition) type).getValues());
+			} else if(type instanceof ListDefinition) {
+				writeSize(LIST_TYPE);
+				writeType(((ListDefinition) type).getSubType());
+				out.writeBoolean(((ListDefinition) type).isUniqueItems());
+			} else if(type instanceof MapDefinition) {
+				writeSize(MAP_TYPE);
+				writeType(((MapDefinition) type).getValueType());
+			} else if(type instanceof PrimitiveDefinition) {
+				writeSize(PRIMITIVE_TYPE);
+				writeString(((PrimitiveDefinition) type).getType());
+			} else if(type instanceof ReferenceDefinition) {
+				writeSize(REFERENCE_TYPE);
+				writeString(((ReferenceDefinition) type).getName());
+			} else {
+				writeSize(NULL_TYPE);
+				return;
+			}
+			
+			writeString(type.getDescription());
+		}
+		
+		private void writeTypes(Map<String, TypeDefinition> types) throws IOException {
+			writeSize(types.size());
+			
+			for(var entry : types.entrySet()) {
+				writeString(entry.getKey());
+				writeType(entry.getValue());
+			}
+		}
+		
+		private void writeStrings(Map<String, String> values) throws IOException {
+			writeSize(values.size());
+			
+			for(var entry : values.entrySet()) {
+				writeString(entry.getKey());
+				writeString(entry.getValue());
+			}
+		}
+		
+		private void writeString(String value) throws IOException {
+			if(value == null) {
+				writeSize(NULL_STRING);
+				return;
+			}
+			
+			Integer index = strings.get(value);
+			
+			if(index != null) {
+				writeSize(index + STRING_INDEX_OFFSET);
+				return;
+			}
+			
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			strings.put(value, strings.size());
+			writeSize(NEW_STRING);
+			writeSize(bytes.length);
+			out.write(bytes);
+		}
+		
+		private void writeSize(int value) throws IOException {
+			while((value & ~0x7f) != 0) {
+				out.writeByte((value & 0x7f) | 0x80);
+				value >>>= 7;
+			}
+			
+			out.writeByte(value);
+		}
+	}
+	
+	private static class Reader {
+		private final DataInputStream in;
+		private final List<String> strings = new ArrayList<String>();
+		
+		private Reader(DataInputStream in) {
+			this.in = in;
+		}
+		
+		private APIDefinition readAPI() throws IOException {
+			if(in.readInt() != MAGIC) {
+				throw new IOException("Not an API snapshot");
+			}
+			
+			int version = readSize();
+			if(version != VERSION) {
+				throw new IOException("Unsupported snapshot version " + version + ", expected " + VERSION);
+			}
+			
+			APIDefinition api = new APIDefinition();
+			api.setTitle(readString());
+			api.setVersion(readString());
+			api.setServers(readString());
+			
+			int resources = readLength();
+			api.setResources(new ArrayList<ResourceDefinition>(resources));
+			for(int i = 0; i < resources; i++) {
+				api.getResources().add(readResource());
+			}
+			
+			readTypes(api.getSchemas());
+			return api;
+		}
+		
+		private ResourceDefinition readResource() throws IOException {
+			ResourceDefinition resource = new ResourceDefinition();
+			resource.setBasePath(readString());
+			
+			for(int methods = readLength(); methods > 0; methods--) {
+				MethodDefinition method = new MethodDefinition();
+				method.setName(readString());
+				
+				method.setConsumes(readString());
+				method.setProduces(readString());
+				method.setVerb(readString());
+				method.setPath(readString());
+				method.setBody(readString());
+				method.setBlockTags(readString());
+				
+				for(int size = readLength(); size > 0; size--) {
+					method.addPathParameter(readString(), readType());
+				}
+				
+				for(int size = readLength(); size > 0; size--) {
+					method.addPathParameterDescription(readString(), readString());
+				}
+				
+				method.setReturnType(readType());
+				method.setRequestBody(readType());
+				resource.getMethods().add(method);
+			}
+			
+			return resource;
+		}
+		
+		private TypeDefinition readType() throws IOException {
+			final MutableTypeDefinition type;
+			final int tag = readSize();
+			
+			switch(tag) {
+				case NULL_TYPE:
+					return null;
+				case CLASS_TYPE:
+					ClassDefinition clazz = new ClassDefinition();
+					readTypes(clazz.getChildren());
+					clazz.setParent(readType());
+					type = clazz;
+					break;
+				case ENUM_TYPE:
+					EnumDefinition enu = new EnumDefinition();
+					readStrings(enu.getValues());
+					type = enu;
+					break;
+				case LIST_TYPE:
+					ListDefinition list = new ListDefinition();
+					list.setSubType(readType());
+					list.setUniqueItems(in.readBoolean());
+					type = list;
+					break;
+				case MAP_TYPE:
+					MapDefinition map = new MapDefinition();
+					map.setValueType(readType());
+					type = map;
+					break;
+				case PRIMITIVE_TYPE:
+					// Primitives cannot be changed, undocumented ones are shared
+					return PrimitiveDefinition.of(readString()).withDescription(readString());
+				case REFERENCE_TYPE:
+					type = new ReferenceDefinition(readString());
+					break;
+				default:
+					throw new IOException("Unknown type tag " + tag + " in snapshot");
+			}
+			
+			type.setDescription(readString());
+			return type;
+		}
+		
+		private void readTypes(Map<String, TypeDefinition> types) throws IOException {
+			for(int size = readLength(); size > 0; size--) {
+				types.put(readString(), readType());
+			}
+		}
+		
+		private void readStrings(Map<String, String> values) throws IOException {
+			for(int size = readLength(); size > 0; size--) {
+				values.put(readString(), readString());
+			}
+		}
+		
+		private String readString() throws IOException {
+			int marker = readSize();
+			
+			if(marker == NULL_STRING) {
+				return null;
+			} else if(marker != NEW_STRING) {
+				if(marker - STRING_INDEX_OFFSET >= strings.size()) {
+					throw new IOException("Unknown string " + marker + " in snapshot");
+				}
+				
+				return strings.get(marker - STRING_INDEX_OFFSET);
+			}
+			
+			byte[] bytes = new byte[readLength()];
+			in.readFully(bytes);
+			
+			String value = new String(bytes, StandardCharsets.UTF_8);
+			strings.add(value);
+			return value;
+		}
+		
+		private int readSize() throws IOException {
+			int value = 0;
+			
+			for(int shift = 0; shift < 32; shift += 7) {
+				int b = in.readUnsignedByte();
+				value |= (b & 0x7f) << shift;
+				
+				if((b & 0x80) == 0) {
+					if(value < 0) {
+						throw new IOException("Negative size " + value + " in snapshot");
+					}
+					
+					return value;
+				}
+			}
+			
+			throw new IOException("Malformed variable-length integer in snapshot");
+		}
+		
+		/**
+		 * Reads a number of entries or bytes. Each takes at least a byte, so there cannot be more than the bytes left.
+		 */
+		private int readLength() throws IOException {
+			int length = readSize();
+			
+			if(length > in.available()) {
+				throw new IOException("Truncated snapshot, " + length + " more entries or bytes expected but only " + in.available() + " bytes left");
+			}
+			
+			return length;
+		}
+	}
+}
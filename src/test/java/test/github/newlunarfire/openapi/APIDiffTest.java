@@ -0,0 +1,131 @@
+package test.github.newlunarfire.openapi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.newlunarfire.openapi.defs.APIDefinition;
+import io.github.newlunarfire.openapi.defs.MethodDefinition;
+import io.github.newlunarfire.openapi.defs.ResourceDefinition;
+import io.github.newlunarfire.openapi.defs.type.ClassDefinition;
+import io.github.newlunarfire.openapi.defs.type.EnumDefinition;
+import io.github.newlunarfire.openapi.defs.type.PrimitiveDefinition;
+import io.github.newlunarfire.openapi.defs.type.ReferenceDefinition;
+import io.github.newlunarfire.openapi.diff.APIDiff;
+
+public class APIDiffTest {
+	@Test
+	void testChangesAreClassified() {
+		APIDefinition before = api(List.of("OPEN", "CLOSED"), false);
+		APIDefinition after = api(List.of("OPEN", "ARCHIVED"), true);
+		after.getResources().remove(1);
+		((ClassDefinition) after.getSchemas().get("Order")).getChildren().put("note", primitive("string"));
+		
+		List<String> changes = APIDiff.compare(before, after).stream().map(Object::toString).collect(Collectors.toList());
+		
+		assertEquals(List.of(
+			"BREAKING GET /orders/{id}: new required path parameter tenant",
+			"BREAKING /customers: path removed",
+			"Order: property note added",
+			// State is only returned, clients never send it
+			"State: enum value CLOSED removed",
+			"BREAKING State: enum value ARCHIVED added"), changes);
+	}
+	
+	@Test
+	void testRequestChangesAreClassifiedByUsage() {
+		APIDefinition before = api(List.of("OPEN", "CLOSED"), false);
+		APIDefinition after = api(List.of("OPEN", "ARCHIVED"), false);
+		
+		// Orders are now only sent, no longer returned
+		for(APIDefinition api : List.of(before, after)) {
+			MethodDefinition get = api.getResources().get(0).getMethods().get(0);
+			get.setRequestBody(get.getReturnType());
+			get.setReturnType(null);
+		}
+		
+		((ClassDefinition) after.getSchemas().get("Order")).getChildren().remove("id");
+		
+		List<String> changes = APIDiff.compare(before, after).stream().map(Object::toString).collect(Collectors.toList());
+		
+		assertEquals(List.of(
+			"Order: property id removed",
+			"BREAKING State: enum value CLOSED removed",
+			"State: enum value ARCHIVED added"), changes);
+	}
+	
+	@Test
+	void testSchemasUsedBothWaysBreakBothWays() {
+		APIDefinition before = api(List.of("OPEN", "CLOSED"), false);
+		APIDefinition after = api(List.of("OPEN", "ARCHIVED"), false);
+		
+		for(APIDefinition api : List.of(before, after)) {
+			api.getResources().get(0).getMethods().get(0).setRequestBody(new ReferenceDefinition("Order"));
+		}
+		
+		((ClassDefinition) after.getSchemas().get("Order")).getChildren().remove("id");
+		
+		List<String> changes = APIDiff.compare(before, after).stream().map(Object::toString).collect(Collectors.toList());
+		
+		assertEquals(List.of(
+			"BREAKING Order: property id removed",
+			"BREAKING State: enum value CLOSED removed",
+			"BREAKING State: enum value ARCHIVED added"), changes);
+	}
+	
+	@Test
+	void testUnchangedPartsAreSkippedByHash() {
+		APIDiff diff = new APIDiff();
+		diff.diff(api(List.of("OPEN"), false), api(List.of("OPEN"), false));
+		
+		assertFalse(diff.isBreaking());
+		assertEquals(List.of(), diff.getChanges());
+		// Two paths and two schemas
+		assertEquals(4, diff.getSkipped());
+	}
+	
+	private static APIDefinition api(List<String> states, boolean tenant) {
+		MethodDefinition get = new MethodDefinition();
+		get.setVerb("GET");
+		get.setPath("/{id}");
+		get.addPathParameter("id", primitive("integer"));
+		get.setReturnType(new ReferenceDefinition("Order"));
+		
+		if(tenant) {
+			get.addPathParameter("tenant", primitive("string"));
+		}
+		
+		ResourceDefinition orders = new ResourceDefinition();
+		orders.setBasePath("/orders");
+		orders.getMethods().add(get);
+		
+		MethodDefinition list = new MethodDefinition();
+		list.setVerb("GET");
+		
+		ResourceDefinition customers = new ResourceDefinition();
+		customers.setBasePath("/customers");
+		customers.getMethods().add(list);
+		
+		EnumDefinition state = new EnumDefinition();
+		states.forEach(value -> state.getValues().put(value, null));
+		
+		ClassDefinition order = new ClassDefinition();
+		order.getChildren().put("id", primitive("integer"));
+		order.getChildren().put("state", new ReferenceDefinition("State"));
+		
+		APIDefinition api = new APIDefinition();
+		api.setResources(new ArrayList<ResourceDefinition>(List.of(orders, customers)));
+		api.getSchemas().put("Order", order);
+		api.getSchemas().put("State", state);
+		return api;
+	}
+	
+	private static PrimitiveDefinition primitive(String type) {
+		return PrimitiveDefinition.of(type);
+	}
+}
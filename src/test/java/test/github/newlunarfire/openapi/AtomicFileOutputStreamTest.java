@@ -0,0 +1,71 @@
+package test.github.newlunarfire.openapi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.newlunarfire.openapi.output.AtomicFileOutputStream;
+
+public class AtomicFileOutputStreamTest {
+	@TempDir
+	Path directory;
+	
+	@Test
+	void testIdenticalContentIsNotRewritten() throws IOException {
+		Path target = directory.resolve("openapi.json");
+		
+		assertTrue(write(target, "{}", true));
+		assertFalse(write(target, "{}", true));
+		assertTrue(write(target, "{\"openapi\":\"3.0.0\"}", true));
+		assertEquals("{\"openapi\":\"3.0.0\"}", Files.readString(target));
+	}
+	
+	@Test
+	void testUncommittedContentIsDiscarded() throws IOException {
+		Path target = directory.resolve("openapi.json");
+		
+		write(target, "{}", true);
+		write(target, "{\"partial\":", false);
+		
+		assertEquals("{}", Files.readString(target));
+		assertEquals(2, Files.list(directory).count());
+	}
+	
+	@Test
+	void testConcurrentStreamsDoNotShareTheirTempFile() throws IOException {
+		Path target = directory.resolve("openapi.json");
+		AtomicFileOutputStream first = new AtomicFileOutputStream(target);
+		AtomicFileOutputStream second = new AtomicFileOutputStream(target);
+		
+		first.write("{\"run\":1}".getBytes(StandardCharsets.UTF_8));
+		second.write("{\"run\":2,\"partial\":".getBytes(StandardCharsets.UTF_8));
+		first.commit();
+		first.close();
+		second.close();
+		
+		assertEquals("{\"run\":1}", Files.readString(target));
+		assertEquals(2, Files.list(directory).count());
+	}
+	
+	private boolean write(Path target, String content, boolean commit) throws IOException {
+		AtomicFileOutputStream out = new AtomicFileOutputStream(target);
+		
+		try(out) {
+			out.write(content.getBytes(StandardCharsets.UTF_8));
+			
+			if(commit) {
+				out.commit();
+			}
+		}
+		
+		return out.isChanged();
+	}
+}
@@ -0,0 +1,106 @@
+package test.github.newlunarfire.openapi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.sun.source.util.DocTrees;
+import com.sun.source.util.JavacTask;
+
+import io.github.newlunarfire.openapi.DocComments;
+import io.github.newlunarfire.openapi.Metrics;
+
+public class DocCommentsTest {
+	private static final String SOURCE = String.join("\n",
+		"package test;",
+		"/**",
+		" * A <b>node</b> of a {@link Tree}, see {@link #parent} and",
+		" *   <a href=\"https://example.com\">the docs</a>.",
+		" * <p>",
+		" * Compare with {@code a < b} and {@literal x*y}, 1 &lt; 2.",
+		" * <ul>",
+		" * <li>first</li>",
+		" * <li>second</li>",
+		" * </ul>",
+		" * <pre>",
+		" * int x = 1;",
+		" * </pre>",
+		" */",
+		"public class Node {",
+		"	/** The parent, or {@link Missing#node}. */",
+		"	private Node parent;",
+		"	private Node next;",
+		"	/** At most &#8805; 3 &#x2F; &#99999999; &#xFFFFFFFFF;. */",
+		"	private int size;",
+		"}",
+		"class Tree {",
+		"}");
+	
+	private static Elements elements;
+	private static DocTrees docTrees;
+	
+	@BeforeAll
+	static void compile() throws IOException {
+		JavaFileObject source = new SimpleJavaFileObject(URI.create("string:///test/Node.java"), JavaFileObject.Kind.SOURCE) {
+			@Override
+			public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+				return SOURCE;
+			}
+		};
+		
+		JavacTask task = (JavacTask) ToolProvider.getSystemJavaCompiler().getTask(null, null, null, List.of("-proc:none"), null, List.of(source));
+		task.analyze();
+		elements = task.getElements();
+		docTrees = DocTrees.instance(task);
+	}
+	
+	@Test
+	void testDescriptionIsRenderedToMarkdown() {
+		DocComments docComments = new DocComments(docTrees, Metrics.disabled());
+		
+		assertEquals("A **node** of a `Tree`, see `Node.parent` and [the docs](https://example.com).\n\n"
+				+ "Compare with `a < b` and x\\*y, 1 \\< 2.\n\n"
+				+ "- first\n"
+				+ "- second\n\n"
+				+ "```\n int x = 1;\n```", docComments.getDescription(node()));
+		assertEquals("The parent, or `Missing.node`.", docComments.getDescription(field("parent")));
+		assertNull(docComments.getDescription(field("next")));
+	}
+	
+	@Test
+	void testInvalidNumericEntitiesAreKept() {
+		DocComments docComments = new DocComments(docTrees, Metrics.disabled());
+		
+		assertEquals("At most \u2265 3 / &#99999999; &#xFFFFFFFFF;.", docComments.getDescription(field("size")));
+	}
+	
+	@Test
+	void testDescriptionIsRenderedOnce() {
+		DocComments docComments = new DocComments(docTrees, Metrics.disabled());
+		
+		assertSame(docComments.getDescription(node()), docComments.getDescription(node()));
+		assertEquals(1, docComments.getHits());
+	}
+	
+	private static TypeElement node() {
+		return elements.getTypeElement("test.Node");
+	}
+	
+	private static Element field(String name) {
+		return node().getEnclosedElements().stream().filter(e -> e.getSimpleName().contentEquals(name)).findFirst().get();
+	}
+}
@@ -0,0 +1,207 @@
+package test.github.newlunarfire.openapi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import io.github.newlunarfire.openapi.defs.APIDefinition;
+import io.github.newlunarfire.openapi.defs.MethodDefinition;
+import io.github.newlunarfire.openapi.defs.ResourceDefinition;
+import io.github.newlunarfire.openapi.defs.type.ClassDefinition;
+import io.github.newlunarfire.openapi.defs.type.ReferenceDefinition;
+import io.github.newlunarfire.openapi.output.JsonOutputFormatter;
+import io.github.newlunarfire.openapi.output.OutputEmitter;
+
+public class JsonOutputFormatterTest {
+	@Test
+	void testSharedSchemasAreEmittedOnceAndReferenced() throws IOException {
+		ClassDefinition node = new ClassDefinition();
+		node.getChildren().put("parent", new ReferenceDefinition("Node"));
+		
+		MethodDefinition get = new MethodDefinition();
+		get.setVerb("GET");
+		get.setProduces("application/json");
+		get.setReturnType(new ReferenceDefinition("Node"));
+		
+		ResourceDefinition resource = new ResourceDefinition();
+		resource.setBasePath("/nodes");
+		resource.getMethods().add(get);
+		
+		APIDefinition api = new APIDefinition();
+		api.setServers("[]");
+		api.setResources(List.of(resource));
+		api.getSchemas().put("Node", node);
+		
+		JsonObject root = render(api);
+		JsonObject schema = root.getAsJsonObject("paths").getAsJsonObject("/nodes").getAsJsonObject("get")
+				.getAsJsonObject("responses").getAsJsonObject("200").getAsJsonObject("content")
+				.getAsJsonObject("application/json").getAsJsonObject("schema");
+		JsonObject component = root.getAsJsonObject("components").getAsJsonObject("schemas").getAsJsonObject("Node");
+		
+		assertEquals("#/components/schemas/Node", schema.get("$ref").getAsString());
+		assertEquals("#/components/schemas/Node", component.getAsJsonObject("properties").getAsJsonObject("parent").get("$ref").getAsString());
+	}
+	
+	@Test
+	void testDocumentedReferencesAreWrappedInAllOf() throws IOException {
+		ReferenceDefinition parent = new ReferenceDefinition("Node");
+		parent.setDescription("The parent node");
+		
+		ClassDefinition node = new ClassDefinition();
+		node.getChildren().put("parent", parent);
+		node.getChildren().put("next", new ReferenceDefinition("Node"));
+		
+		APIDefinition api = new APIDefinition();
+		api.setServers("[]");
+		api.setResources(List.of());
+		api.getSchemas().put("Node", node);
+		
+		JsonObject properties = render(api).getAsJsonObject("components").getAsJsonObject("schemas").getAsJsonObject("Node").getAsJsonObject("properties");
+		JsonObject documented = properties.getAsJsonObject("parent");
+		
+		// OpenAPI 3.0 ignores the siblings of $ref
+		assertFalse(documented.has("$ref"));
+		assertEquals("The parent node", documented.get("description").getAsString());
+		assertEquals("#/components/schemas/Node", documented.getAsJsonArray("allOf").get(0).getAsJsonObject().get("$ref").getAsString());
+		assertEquals(1, properties.getAsJsonObject("next").size());
+	}
+	
+	@Test
+	void testHtmlCharactersAreEscaped() throws IOException {
+		MethodDefinition get = new MethodDefinition();
+		get.setVerb("GET");
+		get.setBody("Returns <b>items</b> where a=1 & b='2'");
+		get.setProduces("application/json");
+		
+		ResourceDefinition resource = new ResourceDefinition();
+		resource.setBasePath("/items");
+		resource.getMethods().add(get);
+		
+		APIDefinition api = new APIDefinition();
+		api.setServers("[]");
+		api.setResources(List.of(resource));
+		
+		String output = renderToString(new OutputEmitter(api), false);
+		
+		assertTrue(output.contains("Returns \\u003cb\\u003eitems\\u003c/b\\u003e where a\\u003d1 \\u0026 b\\u003d\\u00272\\u0027"));
+		assertEquals("Returns <b>items</b> where a=1 & b='2'", JsonParser.parseString(output).getAsJsonObject().getAsJsonObject("paths")
+				.getAsJsonObject("/items").getAsJsonObject("get").get("description").getAsString());
+	}
+	
+	@Test
+	void testDuplicateOperationsAreWrittenOnce() throws IOException {
+		APIDefinition api = new APIDefinition();
+		api.setServers("[]");
+		api.setResources(new ArrayList<ResourceDefinition>());
+		
+		for(String body : List.of("First", "Second")) {
+			MethodDefinition get = new MethodDefinition();
+			get.setVerb("GET");
+			get.setPath("/{id}");
+			get.setBody(body);
+			get.setProduces("application/json");
+			
+			ResourceDefinition resource = new ResourceDefinition();
+			resource.setBasePath("/items");
+			resource.getMethods().add(get);
+			api.getResources().add(resource);
+		}
+		
+		OutputEmitter parallel = new OutputEmitter(api);
+		parallel.setParallelism(2);
+		
+		for(String output : List.of(renderToString(new OutputEmitter(api), true), renderToString(parallel, true))) {
+			assertEquals(1, output.split("\"get\"", -1).length - 1);
+			assertTrue(output.contains("First") && !output.contains("Second"));
+		}
+	}
+	
+	@Test
+	void testComponentsAreOmittedWithoutSchemas() throws IOException {
+		APIDefinition api = new APIDefinition();
+		api.setServers("[]");
+		api.setResources(List.of());
+		
+		assertFalse(render(api).has("components"));
+	}
+	
+	@Test
+	void testParallelRenderingMatchesSequentialRendering() throws IOException {
+		APIDefinition api = new APIDefinition();
+		api.setServers("[]");
+		api.setResources(new ArrayList<ResourceDefinition>());
+		
+		for(int i = 0; i < 500; i++) {
+			MethodDefinition mdef = new MethodDefinition();
+			mdef.setVerb(i % 2 == 0 ? "GET" : "POST");
+			mdef.setPath("/" + (i / 2));
+			mdef.setBody("Operation " + i);
+			mdef.setProduces("application/json");
+			mdef.setConsumes("application/json");
+			mdef.setReturnType(new ReferenceDefinition("Node"));
+			mdef.setRequestBody(new ReferenceDefinition("Node"));
+			
+			ResourceDefinition resource = new ResourceDefinition();
+			resource.setBasePath("/items");
+			resource.getMethods().add(mdef);
+			api.getResources().add(resource);
+		}
+		
+		OutputEmitter sequential = new OutputEmitter(api);
+		OutputEmitter parallel = new OutputEmitter(api);
+		parallel.setParallelism(3);
+		
+		assertEquals(renderToString(sequential, false), renderToString(parallel, false));
+		assertEquals(renderToString(sequential, true), renderToString(parallel, true));
+		
+		// Streaming writes the resources that share a path one group at a time with the same pool, paths come in that order
+		ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+		JsonOutputFormatter listener = new JsonOutputFormatter(streamed, false);
+		parallel.beginDocument(listener);
+		
+		for(int i = 0; i < api.getResources().size(); i += 2) {
+			parallel.writeResources(listener, api.getResources().subList(i, i + 2));
+		}
+		
+		parallel.endDocument(listener);
+		assertEquals(render(api), JsonParser.parseString(streamed.toString("UTF-8")));
+	}
+	
+	@Test
+	void testCompactOutputOmitsWhitespaceAndNulls() throws IOException {
+		ClassDefinition node = new ClassDefinition();
+		node.getChildren().put("parent", new ReferenceDefinition("Node"));
+		
+		APIDefinition api = new APIDefinition();
+		api.setServers("[]");
+		api.setResources(List.of());
+		api.getSchemas().put("Node", node);
+		
+		String output = renderToString(new OutputEmitter(api), true);
+		JsonObject root = JsonParser.parseString(output).getAsJsonObject();
+		
+		assertFalse(output.contains("\n") || output.contains(" "));
+		assertFalse(root.getAsJsonObject("info").has("title"));
+		assertEquals(render(api).getAsJsonObject("components"), root.getAsJsonObject("components"));
+	}
+	
+	private String renderToString(OutputEmitter emitter, boolean compact) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		emitter.emit(new JsonOutputFormatter(out, compact));
+		return out.toString("UTF-8");
+	}
+	
+	private JsonObject render(APIDefinition api) throws IOException {
+		return JsonParser.parseString(renderToString(new OutputEmitter(api), false)).getAsJsonObject();
+	}
+}
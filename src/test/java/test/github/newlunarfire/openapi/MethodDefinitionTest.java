@@ -1,10 +1,18 @@
 package test.github.newlunarfire.openapi;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.Test;
 
 import io.github.newlunarfire.openapi.defs.MethodDefinition;
+import io.github.newlunarfire.openapi.defs.type.PrimitiveDefinition;
 
 public class MethodDefinitionTest {
 	@Test
@@ -16,4 +24,57 @@ public class MethodDefinitionTest {
 		assertEquals("application/json", mdef.getProduces());
 		assertEquals("application/json", mdef.getConsumes());
 	}
+	
+	@Test
+	void testMediaTypesAndVerbsAreInterned() {
+		MethodDefinition mdef = new MethodDefinition();
+		mdef.setProduces(new String("\"application/json\""));
+		mdef.setVerb(new String("GET"));
+		
+		assertSame("application/json", mdef.getProduces());
+		assertSame("GET", mdef.getVerb());
+	}
+	
+	@Test
+	void testMissingMediaTypesAreAccepted() {
+		MethodDefinition mdef = new MethodDefinition();
+		mdef.setProduces(null);
+		mdef.setConsumes(null);
+		
+		assertNull(mdef.getProduces());
+		assertNull(mdef.getConsumes());
+	}
+	
+	@Test
+	void testPathParameterMapsAreAllocatedOnFirstUse() {
+		MethodDefinition mdef = new MethodDefinition();
+		
+		assertTrue(mdef.getPathParameters().isEmpty());
+		assertNull(mdef.getParameterDescription("id"));
+		
+		mdef.addPathParameter("id", PrimitiveDefinition.of("long"));
+		mdef.addPathParameter("version", PrimitiveDefinition.of("int"));
+		mdef.addPathParameterDescription("id", "The identifier");
+		
+		assertEquals(List.of("id", "version"), List.copyOf(mdef.getPathParameters().keySet()));
+		assertSame(PrimitiveDefinition.of("long"), mdef.getPathParameters().get("id"));
+		assertEquals("The identifier", mdef.getParameterDescription("id"));
+		assertNull(mdef.getParameterDescription("version"));
+	}
+	
+	@Test
+	void testPathParametersAreOnlyChangedThroughTheAddMethods() {
+		MethodDefinition mdef = new MethodDefinition();
+		
+		assertThrows(UnsupportedOperationException.class, () -> mdef.getPathParameters().put("id", PrimitiveDefinition.of("long")));
+		assertThrows(UnsupportedOperationException.class, () -> mdef.getPathParameterDescriptions().put("id", "The identifier"));
+		
+		mdef.addPathParameter("id", PrimitiveDefinition.of("long"));
+		mdef.addPathParameterDescription("id", "The identifier");
+		
+		assertThrows(UnsupportedOperationException.class, () -> mdef.getPathParameters().remove("id"));
+		assertThrows(UnsupportedOperationException.class, () -> mdef.getPathParameterDescriptions().clear());
+		assertEquals(Map.of("id", PrimitiveDefinition.of("long")), mdef.getPathParameters());
+		assertEquals(Map.of("id", "The identifier"), mdef.getPathParameterDescriptions());
+	}
 }
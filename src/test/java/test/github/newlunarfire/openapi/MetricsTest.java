@@ -0,0 +1,102 @@
+package test.github.newlunarfire.openapi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.lang.model.element.Element;
+import javax.tools.Diagnostic;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.source.util.DocTreePath;
+
+import io.github.newlunarfire.openapi.Metrics;
+import jdk.javadoc.doclet.Reporter;
+
+public class MetricsTest {
+	@Test
+	void testDisabledMetricsRecordNothing() {
+		Metrics metrics = Metrics.disabled();
+		List<String> notes = new ArrayList<String>();
+		
+		metrics.time(Metrics.SCAN_TYPE_PHASE).close();
+		metrics.count("schemas", 3);
+		metrics.report(reporter(notes));
+		
+		assertEquals(0, metrics.getCount("schemas"));
+		assertTrue(notes.isEmpty());
+	}
+	
+	@Test
+	void testPhasesAndCountersAreWritten(@TempDir Path directory) throws IOException {
+		Metrics metrics = new Metrics(true);
+		
+		try(var timer = metrics.time(Metrics.RENDER_PHASE)) {
+			metrics.items(Metrics.RENDER_PHASE, 2);
+		}
+		
+		metrics.count("schemas", 3);
+		metrics.count("schemas", 4);
+		metrics.max("scanType.maxDepth", 5);
+		metrics.max("scanType.maxDepth", 2);
+		
+		try(OutputStream out = metrics.measure(Metrics.WRITE_PHASE, new ByteArrayOutputStream())) {
+			out.write(new byte[10]);
+		}
+		
+		Path file = directory.resolve("metrics.json");
+		metrics.write(file);
+		JsonObject json = JsonParser.parseString(Files.readString(file, StandardCharsets.UTF_8)).getAsJsonObject();
+		
+		assertEquals(1, json.getAsJsonObject("phases").getAsJsonObject(Metrics.RENDER_PHASE).get("calls").getAsLong());
+		assertEquals(2, json.getAsJsonObject("phases").getAsJsonObject(Metrics.RENDER_PHASE).get("items").getAsLong());
+		assertEquals(10, json.getAsJsonObject("phases").getAsJsonObject(Metrics.WRITE_PHASE).get("items").getAsLong());
+		assertEquals(7, json.getAsJsonObject("counters").get("schemas").getAsLong());
+		assertEquals(5, json.getAsJsonObject("counters").get("scanType.maxDepth").getAsLong());
+	}
+	
+	@Test
+	void testReportPrintsOneNotePerPhaseAndCounter() {
+		Metrics metrics = new Metrics(true);
+		List<String> notes = new ArrayList<String>();
+		
+		metrics.time(Metrics.FILTER_PHASE).close();
+		metrics.count("schemas", 1);
+		metrics.report(reporter(notes));
+		
+		assertEquals(2, notes.size());
+		assertTrue(notes.get(0).startsWith(Metrics.FILTER_PHASE));
+		assertTrue(notes.get(1).startsWith("schemas"));
+	}
+	
+	private static Reporter reporter(List<String> notes) {
+		return new Reporter() {
+			@Override
+			public void print(Diagnostic.Kind kind, String message) {
+				notes.add(message);
+			}
+			
+			@Override
+			public void print(Diagnostic.Kind kind, DocTreePath path, String message) {
+				notes.add(message);
+			}
+			
+			@Override
+			public void print(Diagnostic.Kind kind, Element element, String message) {
+				notes.add(message);
+			}
+		};
+	}
+}
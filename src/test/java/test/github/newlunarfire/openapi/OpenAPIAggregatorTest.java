@@ -0,0 +1,96 @@
+package test.github.newlunarfire.openapi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.newlunarfire.openapi.OpenAPIAggregator;
+import io.github.newlunarfire.openapi.defs.APIDefinition;
+import io.github.newlunarfire.openapi.defs.MethodDefinition;
+import io.github.newlunarfire.openapi.defs.ResourceDefinition;
+import io.github.newlunarfire.openapi.defs.type.ClassDefinition;
+import io.github.newlunarfire.openapi.defs.type.PrimitiveDefinition;
+import io.github.newlunarfire.openapi.defs.type.ReferenceDefinition;
+import io.github.newlunarfire.openapi.defs.type.TypeDefinition;
+
+public class OpenAPIAggregatorTest {
+	@Test
+	void testSchemasAreMergedByStructure() {
+		APIDefinition orders = module("/orders", "Order");
+		orders.getSchemas().put("Order", order("Address"));
+		orders.getSchemas().put("Address", address("street"));
+		orders.getSchemas().put("Money", money("Money of the orders module"));
+		
+		APIDefinition billing = module("/invoices", "Order");
+		billing.getSchemas().put("Order", order("Address"));
+		billing.getSchemas().put("Address", address("line1"));
+		billing.getSchemas().put("Money", money("Money of the billing module"));
+		
+		OpenAPIAggregator aggregator = new OpenAPIAggregator();
+		APIDefinition merged = aggregator.merge(List.of("orders", "billing"), List.of(orders, billing));
+		
+		// Money only differs by its description, Order differs by the Address it references
+		assertEquals(Set.of("Order", "Address", "Money", "Order_billing", "Address_billing"), merged.getSchemas().keySet());
+		assertEquals(new ReferenceDefinition("Address_billing"), ((ClassDefinition) merged.getSchemas().get("Order_billing")).getChildren().get("address"));
+		assertEquals(new ReferenceDefinition("Order_billing"), merged.getResources().get(1).getMethods().get(0).getReturnType());
+		assertEquals(2, aggregator.getCollisions().size());
+	}
+	
+	@Test
+	void testDuplicateOperationsAreSkipped() {
+		APIDefinition first = module("/orders", "Order");
+		first.getSchemas().put("Order", order("Address"));
+		
+		APIDefinition second = module("/orders", "Order");
+		second.getSchemas().put("Order", order("Address"));
+		
+		OpenAPIAggregator aggregator = new OpenAPIAggregator();
+		APIDefinition merged = aggregator.merge(List.of("first", "second"), List.of(first, second));
+		
+		assertEquals(1, merged.getResources().size());
+		assertEquals(List.of("Operation GET /orders of second is already declared by first, skipped"), aggregator.getCollisions());
+	}
+	
+	private static APIDefinition module(String basePath, String schema) {
+		MethodDefinition get = new MethodDefinition();
+		get.setName("get");
+		get.setVerb("GET");
+		get.setReturnType(new ReferenceDefinition(schema));
+		
+		ResourceDefinition resource = new ResourceDefinition();
+		resource.setBasePath(basePath);
+		resource.getMethods().add(get);
+		
+		APIDefinition api = new APIDefinition();
+		api.setResources(new ArrayList<ResourceDefinition>(List.of(resource)));
+		return api;
+	}
+	
+	private static ClassDefinition order(String address) {
+		ClassDefinition order = new ClassDefinition();
+		order.getChildren().put("address", new ReferenceDefinition(address));
+		order.getChildren().put("total", new ReferenceDefinition("Money"));
+		return order;
+	}
+	
+	private static ClassDefinition address(String field) {
+		ClassDefinition address = new ClassDefinition();
+		address.getChildren().put(field, primitive("string"));
+		return address;
+	}
+	
+	private static ClassDefinition money(String description) {
+		ClassDefinition money = new ClassDefinition();
+		money.setDescription(description);
+		money.getChildren().put("amount", primitive("number"));
+		return money;
+	}
+	
+	private static TypeDefinition primitive(String type) {
+		return PrimitiveDefinition.of(type);
+	}
+}
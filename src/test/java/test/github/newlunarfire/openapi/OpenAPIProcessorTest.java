@@ -0,0 +1,128 @@
+package test.github.newlunarfire.openapi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import io.github.newlunarfire.openapi.OpenAPIProcessor;
+
+public class OpenAPIProcessorTest {
+	private static final Map<String, String> SOURCES = Map.of(
+		"test/Order.java", String.join("\n",
+			"package test;",
+			"/** An order. */",
+			"public class Order {",
+			"	/** Number of items. */",
+			"	private int quantity;",
+			"}"),
+		"test/api/Orders.java", String.join("\n",
+			"package test.api;",
+			"import javax.ws.rs.*;",
+			"import test.*;",
+			"@Path(\"/orders\")",
+			"public class Orders {",
+			"	/**",
+			"	 * Creates an order.",
+			"	 */",
+			"	@POST @Consumes(\"application/json\") @Produces(\"application/json\")",
+			"	public void create(Order order) { }",
+			"}"));
+	
+	@TempDir
+	Path classes;
+	
+	@Test
+	void testDocumentIsWrittenToTheClassOutput() throws IOException {
+		String document = compile("-Aopenapi.packages=test.api", "-Aopenapi.title=Orders");
+		JsonObject root = JsonParser.parseString(document).getAsJsonObject();
+		
+		assertEquals("Orders", root.getAsJsonObject("info").get("title").getAsString());
+		assertEquals("Creates an order.", root.getAsJsonObject("paths").getAsJsonObject("/orders").getAsJsonObject("post").get("description").getAsString());
+		assertEquals("Number of items.", root.getAsJsonObject("components").getAsJsonObject("schemas").getAsJsonObject("Order")
+				.getAsJsonObject("properties").getAsJsonObject("quantity").get("description").getAsString());
+	}
+	
+	@Test
+	void testFlagsAreParsed() throws IOException {
+		assertFalse(compile("-Aopenapi.packages=test.api", "-Aopenapi.compact").contains("\n"));
+		assertFalse(compile("-Aopenapi.packages=test.api", "-Aopenapi.compact=true").contains("\n"));
+		assertTrue(compile("-Aopenapi.packages=test.api", "-Aopenapi.compact=false").contains("\n"));
+	}
+	
+	@Test
+	void testNothingIsWrittenWithoutPackages() throws IOException {
+		DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+		
+		assertTrue(compile(SOURCES, List.of(), diagnostics));
+		assertFalse(Files.exists(classes.resolve("openapi.json")));
+		assertEquals(List.of(), diagnostics.getDiagnostics());
+	}
+	
+	@Test
+	void testPartialCompileLeavesTheDocumentUnchanged() throws IOException {
+		Map<String, String> sources = new HashMap<String, String>(SOURCES);
+		sources.put("test/api/Customers.java", "package test.api;\nimport javax.ws.rs.*;\n@Path(\"/customers\")\npublic class Customers {\n	@GET @Produces(\"application/json\") public String list() { return null; }\n}");
+		String document = compile(sources, "-Aopenapi.packages=test.api");
+		
+		// As an IDE does after Orders is edited, the other classes are taken from the class output
+		DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+		List<String> options = List.of("-classpath", System.getProperty("java.class.path") + File.pathSeparator + classes, "-Aopenapi.packages=test.api");
+		
+		assertTrue(compile(Map.of("test/api/Orders.java", SOURCES.get("test/api/Orders.java")), options, diagnostics));
+		assertEquals(document, Files.readString(classes.resolve("openapi.json"), StandardCharsets.UTF_8));
+		assertEquals(Diagnostic.Kind.NOTE, diagnostics.getDiagnostics().get(0).getKind());
+		assertTrue(diagnostics.getDiagnostics().get(0).getMessage(null).contains("test.api.Customers"));
+	}
+	
+	private String compile(String... processorOptions) throws IOException {
+		return compile(SOURCES, processorOptions);
+	}
+	
+	private String compile(Map<String, String> sources, String... processorOptions) throws IOException {
+		assertTrue(compile(sources, List.of(processorOptions), null), "javac failed");
+		return Files.readString(classes.resolve("openapi.json"), StandardCharsets.UTF_8);
+	}
+	
+	private boolean compile(Map<String, String> sources, List<String> extraOptions, DiagnosticCollector<JavaFileObject> diagnostics) {
+		List<JavaFileObject> files = sources.entrySet().stream()
+				.map(source -> new SimpleJavaFileObject(URI.create("string:///" + source.getKey()), JavaFileObject.Kind.SOURCE) {
+					@Override
+					public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+						return source.getValue();
+					}
+				})
+				.collect(Collectors.toList());
+		
+		List<String> options = new ArrayList<String>(List.of("-classpath", System.getProperty("java.class.path"), "-d", classes.toString()));
+		options.addAll(extraOptions);
+		
+		JavaCompiler.CompilationTask task = ToolProvider.getSystemJavaCompiler().getTask(null, null, diagnostics, options, null, files);
+		task.setProcessors(List.of(new OpenAPIProcessor()));
+		return task.call();
+	}
+}
@@ -0,0 +1,21 @@
+package test.github.newlunarfire.openapi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.newlunarfire.openapi.OpenAPIRenderer;
+
+public class OpenAPIRendererTest {
+	@Test
+	void testParallelismMustBeAPositiveNumber() {
+		assertEquals(1, OpenAPIRenderer.parseParallelism(null));
+		assertEquals(4, OpenAPIRenderer.parseParallelism("4"));
+		
+		for(String invalid : new String[] { "0", "-2", "four", "" }) {
+			IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> OpenAPIRenderer.parseParallelism(invalid));
+			assertEquals("-apiParallelism must be a positive number of threads, not " + invalid, e.getMessage());
+		}
+	}
+}
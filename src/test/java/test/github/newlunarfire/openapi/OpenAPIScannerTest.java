@@ -0,0 +1,341 @@
+package test.github.newlunarfire.openapi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import javax.lang.model.element.Element;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.Test;
+
+import com.sun.source.util.DocTrees;
+import com.sun.source.util.JavacTask;
+
+import io.github.newlunarfire.openapi.Metrics;
+import io.github.newlunarfire.openapi.OpenAPIScanner;
+import io.github.newlunarfire.openapi.defs.APIDefinition;
+import io.github.newlunarfire.openapi.defs.MethodDefinition;
+import io.github.newlunarfire.openapi.defs.type.ClassDefinition;
+import io.github.newlunarfire.openapi.defs.type.EnumDefinition;
+import io.github.newlunarfire.openapi.defs.type.ListDefinition;
+import io.github.newlunarfire.openapi.defs.type.MapDefinition;
+import io.github.newlunarfire.openapi.defs.type.PrimitiveDefinition;
+import io.github.newlunarfire.openapi.defs.type.ReferenceDefinition;
+import io.github.newlunarfire.openapi.defs.type.TypeDefinition;
+
+public class OpenAPIScannerTest {
+	private static final Map<String, String> INHERITANCE = Map.of(
+		"test/BaseEntity.java", String.join("\n",
+			"package test;",
+			"public abstract class BaseEntity {",
+			"	private static final long serialVersionUID = 1L;",
+			"	private long id;",
+			"	private transient Object lock;",
+			"}"),
+		"test/Auditable.java", String.join("\n",
+			"package test;",
+			"public abstract class Auditable extends BaseEntity {",
+			"	private String createdBy;",
+			"}"),
+		"test/Order.java", String.join("\n",
+			"package test;",
+			"public class Order extends Auditable {",
+			"	private int quantity;",
+			"}"),
+		"test/Invoice.java", String.join("\n",
+			"package test;",
+			"public class Invoice extends Auditable {",
+			"}"),
+		"test/api/Orders.java", String.join("\n",
+			"package test.api;",
+			"import javax.ws.rs.*;",
+			"import test.*;",
+			"@Path(\"/orders\")",
+			"public class Orders {",
+			"	@POST @Consumes(\"application/json\") @Produces(\"application/json\")",
+			"	public void create(Order order) { }",
+			"	@POST @Path(\"/invoices\") @Consumes(\"application/json\") @Produces(\"application/json\")",
+			"	public void invoice(Invoice invoice) { }",
+			"}"));
+	
+	@Test
+	void testGenericTypesAreInstantiatedOnce() throws IOException {
+		APIDefinition api = scan(Map.of(
+			"test/Page.java", String.join("\n",
+				"package test;",
+				"import java.util.*;",
+				"public class Page<T> {",
+				"	private List<T> items;",
+				"	private Map<String, T> byId;",
+				"	private Set<String> tags;",
+				"	private Optional<Long> total;",
+				"}"),
+			"test/Order.java", String.join("\n",
+				"package test;",
+				"public class Order {",
+				"	private Integer quantity;",
+				"	private byte[] signature;",
+				"}"),
+			"test/api/Orders.java", String.join("\n",
+				"package test.api;",
+				"import javax.ws.rs.*;",
+				"import java.util.concurrent.CompletionStage;",
+				"import test.*;",
+				"@Path(\"/orders\")",
+				"public class Orders {",
+				"	@POST @Consumes(\"application/json\") @Produces(\"application/json\")",
+				"	public void create(Page<Order> orders) { }",
+				"	@POST @Path(\"/async\") @Consumes(\"application/json\") @Produces(\"application/json\")",
+				"	public void createAsync(CompletionStage<Page<Order>> orders) { }",
+				"}")));
+		
+		List<TypeDefinition> bodies = api.getResources().get(0).getMethods().stream()
+				.map(MethodDefinition::getRequestBody)
+				.collect(Collectors.toList());
+		
+		assertEquals(List.of(new ReferenceDefinition("Page_Order"), new ReferenceDefinition("Page_Order")), bodies);
+		assertEquals(Set.of("Page_Order", "Order"), api.getSchemas().keySet());
+		
+		ClassDefinition page = (ClassDefinition) api.getSchemas().get("Page_Order");
+		assertEquals(new ReferenceDefinition("Order"), ((ListDefinition) page.getChildren().get("items")).getSubType());
+		assertEquals(new ReferenceDefinition("Order"), ((MapDefinition) page.getChildren().get("byId")).getValueType());
+		assertTrue(((ListDefinition) page.getChildren().get("tags")).isUniqueItems());
+		assertEquals("long", ((PrimitiveDefinition) page.getChildren().get("total")).getType());
+		
+		ClassDefinition order = (ClassDefinition) api.getSchemas().get("Order");
+		assertEquals("int", ((PrimitiveDefinition) order.getChildren().get("quantity")).getType());
+		assertEquals("byte[]", ((PrimitiveDefinition) order.getChildren().get("signature")).getType());
+	}
+	
+	@Test
+	void testTypeAnnotationsDoNotMakeAnotherInstance() throws IOException {
+		APIDefinition api = scan(Map.of(
+			"test/NotNull.java", String.join("\n",
+				"package test;",
+				"import java.lang.annotation.*;",
+				"@Target(ElementType.TYPE_USE)",
+				"public @interface NotNull { }"),
+			"test/Page.java", "package test;\npublic class Page<T> {\n	private T[] items;\n}",
+			"test/Order.java", "package test;\npublic class Order {\n	private int quantity;\n}",
+			"test/api/Orders.java", String.join("\n",
+				"package test.api;",
+				"import javax.ws.rs.*;",
+				"import test.*;",
+				"@Path(\"/orders\")",
+				"public class Orders {",
+				"	@POST @Consumes(\"application/json\") @Produces(\"application/json\")",
+				"	public void create(Page<Order> orders) { }",
+				"	@PUT @Consumes(\"application/json\") @Produces(\"application/json\")",
+				"	public void replace(Page<@NotNull Order> orders) { }",
+				"	@PATCH @Consumes(\"application/json\") @Produces(\"application/json\")",
+				"	public void update(Page<@NotNull Order @NotNull []> orders) { }",
+				"	@DELETE @Consumes(\"application/json\") @Produces(\"application/json\")",
+				"	public void delete(Page<Order[]> orders) { }",
+				"}")));
+		
+		List<TypeDefinition> bodies = api.getResources().get(0).getMethods().stream()
+				.map(MethodDefinition::getRequestBody)
+				.collect(Collectors.toList());
+		
+		assertEquals(List.of(new ReferenceDefinition("Page_Order"), new ReferenceDefinition("Page_Order"),
+				new ReferenceDefinition("Page_OrderArray"), new ReferenceDefinition("Page_OrderArray")), bodies);
+		assertEquals(Set.of("Page_Order", "Page_OrderArray", "Order"), api.getSchemas().keySet());
+	}
+	
+	@Test
+	void testRawGenericTypesUseTheBoundsOfTheirVariables() throws IOException {
+		APIDefinition api = scan(Map.of(
+			"test/Page.java", String.join("\n",
+				"package test;",
+				"public class Page<T extends Number> {",
+				"	private T first;",
+				"}"),
+			"test/api/Pages.java", String.join("\n",
+				"package test.api;",
+				"import javax.ws.rs.*;",
+				"@Path(\"/pages\")",
+				"public class Pages {",
+				"	@POST @Consumes(\"application/json\") @Produces(\"application/json\")",
+				"	public void create(test.Page page) { }",
+				"}")));
+		
+		ClassDefinition page = (ClassDefinition) api.getSchemas().get("Page");
+		assertEquals(new ReferenceDefinition("Number"), page.getChildren().get("first"));
+	}
+	
+	@Test
+	void testInheritedFieldsAreScanned() throws IOException {
+		APIDefinition api = scan(INHERITANCE, false);
+		
+		ClassDefinition order = (ClassDefinition) api.getSchemas().get("Order");
+		assertEquals(List.of("id", "createdBy", "quantity"), new ArrayList<String>(order.getChildren().keySet()));
+		assertNull(order.getParent());
+		assertEquals(Set.of("Order", "Invoice"), api.getSchemas().keySet());
+	}
+	
+	@Test
+	void testSubclassesUseAllOf() throws IOException {
+		APIDefinition api = scan(INHERITANCE, true);
+		
+		ClassDefinition order = (ClassDefinition) api.getSchemas().get("Order");
+		assertEquals(new ReferenceDefinition("Auditable"), order.getParent());
+		assertEquals(Set.of("quantity"), order.getChildren().keySet());
+		
+		ClassDefinition auditable = (ClassDefinition) api.getSchemas().get("Auditable");
+		assertEquals(new ReferenceDefinition("BaseEntity"), auditable.getParent());
+		assertEquals(Set.of("createdBy"), auditable.getChildren().keySet());
+		assertNull(((ClassDefinition) api.getSchemas().get("BaseEntity")).getParent());
+	}
+	
+	@Test
+	void testFirstVerbAnnotationIsUsed() throws IOException {
+		APIDefinition api = scan(Map.of(
+			"test/api/Items.java", String.join("\n",
+				"package test.api;",
+				"import javax.ws.rs.*;",
+				"@Path(\"/items\")",
+				"public class Items {",
+				"	@PUT @POST @Path(\"/a\") @Produces(\"application/json\")",
+				"	public void a() { }",
+				"	@DELETE @GET @HEAD @Path(\"/b\") @Produces(\"application/json\")",
+				"	public void b() { }",
+				"}")));
+		
+		List<String> verbs = api.getResources().get(0).getMethods().stream()
+				.map(MethodDefinition::getVerb)
+				.collect(Collectors.toList());
+		
+		assertEquals(List.of("PUT", "DELETE"), verbs);
+	}
+	
+	@Test
+	void testAmbiguousReturnTypeResolvesToFirstQualifiedName() throws IOException {
+		Map<String, String> sources = Map.of(
+			"test/b/Receipt.java", "package test.b;\npublic class Receipt {\n	private long b;\n}",
+			"test/a/Receipt.java", "package test.a;\npublic class Receipt {\n	private long a;\n}",
+			"test/c/Receipt.java", "package test.c;\npublic class Receipt {\n	private long c;\n}",
+			"test/api/Receipts.java", String.join("\n",
+				"package test.api;",
+				"import javax.ws.rs.*;",
+				"@Path(\"/receipts\")",
+				"public class Receipts {",
+				"	/**",
+				"	 * @returnType Receipt.class",
+				"	 */",
+				"	@GET @Produces(\"application/json\")",
+				"	public Object get() { return null; }",
+				"}"));
+		
+		for(int i = 0; i < 3; i++) {
+			ClassDefinition receipt = (ClassDefinition) scan(sources).getSchemas().get("Receipt");
+			assertEquals(Set.of("a"), receipt.getChildren().keySet());
+		}
+	}
+	
+	@Test
+	void testParallelTransformMatchesSequentialTransform() throws IOException {
+		Map<String, String> sources = new HashMap<String, String>();
+		sources.put("test/State.java", String.join("\n",
+			"package test;",
+			"/** Lifecycle of an item. */",
+			"public enum State {",
+			"	/** Visible to <b>clients</b>. */",
+			"	OPEN,",
+			"	CLOSED,",
+			"	/** Kept for {@link Item audits}. */",
+			"	ARCHIVED",
+			"}"));
+		
+		for(int i = 0; i < 20; i++) {
+			sources.put("test/Item" + i + ".java", String.join("\n",
+				"package test;",
+				"/** Item number " + i + ", see {@link State}. */",
+				"public class Item" + i + " {",
+				"	/** Identifier of item " + i + ". */",
+				"	private long id;",
+				"	/** State of the item, {@code OPEN} at first. */",
+				"	private State state;",
+				"	private int count;",
+				"}"));
+			sources.put("test/api/Items" + i + ".java", String.join("\n",
+				"package test.api;",
+				"import javax.ws.rs.*;",
+				"import test.*;",
+				"@Path(\"/items" + i + "\")",
+				"public class Items" + i + " {",
+				"	/**",
+				"	 * Gets an <i>item</i> of {@link Item" + i + "}.",
+				"	 * @param id the identifier, at least <code>1</code>",
+				"	 * @returnType Item" + i + ".class",
+				"	 */",
+				"	@GET @Path(\"/{id}\") @Produces(\"application/json\")",
+				"	public Object get(@PathParam(\"id\") long id) { return null; }",
+				"	/** Replaces an item. */",
+				"	@PUT @Consumes(\"application/json\") @Produces(\"application/json\")",
+				"	public void put(Item" + i + " item) { }",
+				"}"));
+		}
+		
+		APIDefinition sequential = scan(sources, scanner -> scanner.setParallelism(1));
+		APIDefinition parallel = scan(sources, scanner -> scanner.setParallelism(4));
+		
+		MethodDefinition get = sequential.getResources().get(0).getMethods().get(0);
+		assertEquals("Gets an *item* of `Item0`.", get.getBody());
+		assertEquals("the identifier, at least `1`", get.getParameterDescription("id"));
+		assertEquals("Visible to **clients**.", ((EnumDefinition) sequential.getSchemas().get("State")).getValues().get("OPEN"));
+		assertEquals("Identifier of item 0.", ((ClassDefinition) sequential.getSchemas().get("Item0")).getChildren().get("id").getDescription());
+		assertSame(PrimitiveDefinition.of("int"), ((ClassDefinition) sequential.getSchemas().get("Item0")).getChildren().get("count"));
+		
+		assertEquals(sequential, parallel);
+	}
+	
+	static APIDefinition scan(Map<String, String> sources) throws IOException {
+		return scan(sources, false);
+	}
+	
+	static APIDefinition scan(Map<String, String> sources, boolean allOf) throws IOException {
+		return scan(sources, scanner -> scanner.setAllOf(allOf));
+	}
+	
+	static APIDefinition scan(Map<String, String> sources, Consumer<OpenAPIScanner> configuration) throws IOException {
+		return scan(sources, System.getProperty("java.class.path"), configuration);
+	}
+	
+	static APIDefinition scan(Map<String, String> sources, String classpath, Consumer<OpenAPIScanner> configuration) throws IOException {
+		List<JavaFileObject> files = sources.entrySet().stream()
+				.map(source -> new SimpleJavaFileObject(URI.create("string:///" + source.getKey()), JavaFileObject.Kind.SOURCE) {
+					@Override
+					public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+						return source.getValue();
+					}
+				})
+				.collect(Collectors.toList());
+		
+		JavacTask task = (JavacTask) ToolProvider.getSystemJavaCompiler()
+				.getTask(null, null, null, List.of("-proc:none", "-classpath", classpath), null, files);
+		List<Element> elements = new ArrayList<Element>();
+		task.analyze().forEach(elements::add);
+		
+		OpenAPIScanner scanner = new OpenAPIScanner();
+		scanner.setMetrics(Metrics.disabled());
+		scanner.setServers("[]");
+		scanner.setPackages(List.of("test.api"));
+		configuration.accept(scanner);
+		
+		return scanner.scan(task.getElements(), task.getTypes(), DocTrees.instance(task), elements);
+	}
+}
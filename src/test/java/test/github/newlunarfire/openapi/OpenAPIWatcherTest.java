@@ -0,0 +1,83 @@
+package test.github.newlunarfire.openapi;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.tools.StandardJavaFileManager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.newlunarfire.openapi.OpenAPIWatcher;
+
+public class OpenAPIWatcherTest {
+	private static final String RESOURCE = String.join("\n",
+		"package test.api;",
+		"import javax.ws.rs.*;",
+		"@Path(\"/items\")",
+		"public class Items {",
+		"	/** Lists the items. */",
+		"	@GET @Produces(\"application/json\")",
+		"	public Object list() { return null; }",
+		"}");
+	
+	@TempDir
+	Path root;
+	
+	@Test
+	void testOnlySourceChangesRegenerate() throws Exception {
+		Path source = root.resolve("test/api/Items.java");
+		Files.createDirectories(source.getParent());
+		Files.writeString(source, RESOURCE, StandardCharsets.UTF_8);
+		
+		// Output and cache under the source root, their writes must not trigger another run
+		Semaphore runs = new Semaphore(0);
+		OpenAPIWatcher watcher = new OpenAPIWatcher(List.of(root), List.of(
+				"-quiet",
+				"-classpath", System.getProperty("java.class.path"),
+				"-d", root.resolve("out").toString(),
+				"-apiCacheDir", root.resolve("cache").toString(),
+				"-apiServers", "[]",
+				"-apiPackages", "test.api")) {
+			@Override
+			public boolean generate(StandardJavaFileManager fileManager) throws IOException {
+				try {
+					return super.generate(fileManager);
+				} finally {
+					runs.release();
+				}
+			}
+		};
+		
+		Files.createDirectories(root.resolve("out"));
+		Thread thread = new Thread(() -> {
+			try {
+				watcher.watch();
+			} catch (IOException | InterruptedException e) {
+				// Interrupted at the end of the test
+			}
+		});
+		thread.start();
+		
+		try {
+			assertTrue(runs.tryAcquire(30, TimeUnit.SECONDS), "The document was not generated");
+			assertTrue(Files.exists(root.resolve("out/openapi.json")));
+			assertFalse(runs.tryAcquire(2, TimeUnit.SECONDS), "Writing the output triggered another run");
+			
+			Files.writeString(source, RESOURCE.replace("Lists the items.", "Lists all the items."), StandardCharsets.UTF_8);
+			assertTrue(runs.tryAcquire(30, TimeUnit.SECONDS), "A source change did not trigger a run");
+			assertTrue(Files.readString(root.resolve("out/openapi.json"), StandardCharsets.UTF_8).contains("Lists all the items."));
+		} finally {
+			thread.interrupt();
+			thread.join(10_000);
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package test.github.newlunarfire.openapi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.newlunarfire.openapi.output.PathTrie;
+
+public class PathTrieTest {
+	@Test
+	void testPathsAreNormalized() {
+		assertEquals("/users/{id}", PathTrie.normalize("/users/", "{id}"));
+		assertEquals("/users/{id}", PathTrie.normalize("/users", "/{id}/"));
+		assertEquals("/files/{path}", PathTrie.normalize("files", "{path: .*/.*}"));
+		assertEquals("/", PathTrie.normalize("/", null));
+	}
+	
+	@Test
+	void testOperationsAreGroupedInSortedOrder() {
+		PathTrie<String> trie = new PathTrie<String>();
+		trie.add("/users", "/{id}", "GET", "get");
+		trie.add("/users/", "{id}", "DELETE", "delete");
+		trie.add("/users", "/me", "GET", "me");
+		trie.add("/users", null, "GET", "list");
+		trie.add("/groups", null, "GET", "groups");
+		
+		Map<String, List<String>> paths = trie.toMap();
+		
+		assertEquals(List.of("/groups", "/users", "/users/me", "/users/{id}"), List.copyOf(paths.keySet()));
+		assertEquals(List.of("get", "delete"), paths.get("/users/{id}"));
+		assertEquals(List.of(), trie.getConflicts());
+	}
+	
+	@Test
+	void testConflictsAreDetected() {
+		PathTrie<String> trie = new PathTrie<String>();
+		trie.add("/a", "/{x}", "GET", "first");
+		trie.add("/a", "/{y}", "PUT", "second");
+		trie.add("/a/", "{x}", "GET", "third");
+		
+		assertEquals(List.of("Path /a/{y} is ambiguous with /a/{x}", "Operation GET /a/{x} is declared more than once, only the first one is documented"), trie.getConflicts());
+		assertEquals(List.of("first"), trie.toMap().get("/a/{x}"));
+	}
+}
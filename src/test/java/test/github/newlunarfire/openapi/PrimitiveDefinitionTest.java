@@ -0,0 +1,65 @@
+package test.github.newlunarfire.openapi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.newlunarfire.openapi.defs.type.PrimitiveDefinition;
+
+public class PrimitiveDefinitionTest {
+	@Test
+	void testUndocumentedDefinitionsAreShared() {
+		PrimitiveDefinition integer = PrimitiveDefinition.of("integer");
+		
+		assertSame(integer, PrimitiveDefinition.of(new String("integer")));
+		assertSame("integer", integer.getType());
+		assertNull(integer.getDescription());
+	}
+	
+	@Test
+	void testDescriptionMakesANewDefinition() {
+		PrimitiveDefinition integer = PrimitiveDefinition.of("integer");
+		PrimitiveDefinition documented = integer.withDescription("The identifier");
+		
+		assertEquals("integer", documented.getType());
+		assertEquals("The identifier", documented.getDescription());
+		assertNull(integer.getDescription());
+		assertNotEquals(integer, documented);
+		assertEquals(documented, integer.withDescription("The identifier"));
+		assertSame(integer, documented.withDescription(null));
+	}
+	
+	@Test
+	void testReadingBackUndocumentedDefinitionsSharesThem() throws Exception {
+		PrimitiveDefinition integer = PrimitiveDefinition.of("integer");
+		PrimitiveDefinition documented = integer.withDescription("The identifier");
+		
+		assertSame(integer, roundTrip(integer));
+		
+		PrimitiveDefinition read = roundTrip(documented);
+		assertNotSame(documented, read);
+		assertEquals(documented, read);
+	}
+	
+	private static PrimitiveDefinition roundTrip(PrimitiveDefinition primitive) throws IOException, ClassNotFoundException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		
+		try(ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(primitive);
+		}
+		
+		try(ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			return (PrimitiveDefinition) in.readObject();
+		}
+	}
+}
@@ -0,0 +1,142 @@
+package test.github.newlunarfire.openapi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.newlunarfire.openapi.Metrics;
+import io.github.newlunarfire.openapi.defs.APIDefinition;
+import io.github.newlunarfire.openapi.defs.type.ClassDefinition;
+import io.github.newlunarfire.openapi.defs.type.ReferenceDefinition;
+
+public class ResourceCacheTest {
+	private static final Map<String, String> SOURCES = Map.of(
+		"test/BaseEntity.java", String.join("\n",
+			"package test;",
+			"public abstract class BaseEntity {",
+			"	private long id;",
+			"}"),
+		"test/Order.java", String.join("\n",
+			"package test;",
+			"public class Order extends BaseEntity {",
+			"	private int quantity;",
+			"}"),
+		"test/api/Orders.java", String.join("\n",
+			"package test.api;",
+			"import javax.ws.rs.*;",
+			"import test.*;",
+			"@Path(\"/orders\")",
+			"public class Orders {",
+			"	/**",
+			"	 * Creates an order.",
+			"	 */",
+			"	@POST @Consumes(\"application/json\") @Produces(\"application/json\")",
+			"	public void create(Order order) { }",
+			"}"));
+	
+	@TempDir
+	Path cacheDirectory;
+	
+	private Metrics metrics;
+	
+	@Test
+	void testUnchangedSourcesAreRestored() throws IOException {
+		APIDefinition scanned = scan(SOURCES);
+		assertEquals(1, metrics.getCount("resourceCache.misses"));
+		
+		APIDefinition restored = scan(SOURCES);
+		assertEquals(1, metrics.getCount("resourceCache.hits"));
+		assertEquals(0, metrics.getCount("resourceCache.misses"));
+		assertEquals(scanned, restored);
+	}
+	
+	@Test
+	void testChangedTypeSourceIsScannedAgain() throws IOException {
+		scan(SOURCES);
+		
+		Map<String, String> changed = new HashMap<String, String>(SOURCES);
+		changed.put("test/Order.java", SOURCES.get("test/Order.java").replace("int quantity;", "int quantity;\n	private String note;"));
+		
+		APIDefinition api = scan(changed);
+		assertEquals(1, metrics.getCount("resourceCache.misses"));
+		assertEquals(List.of("id", "quantity", "note"), List.copyOf(((ClassDefinition) api.getSchemas().get("Order")).getChildren().keySet()));
+	}
+	
+	@Test
+	void testChangedSuperclassSourceIsScannedAgain() throws IOException {
+		scan(SOURCES);
+		
+		Map<String, String> changed = new HashMap<String, String>(SOURCES);
+		changed.put("test/BaseEntity.java", SOURCES.get("test/BaseEntity.java").replace("long id;", "long id;\n	private long version;"));
+		
+		APIDefinition api = scan(changed);
+		assertEquals(1, metrics.getCount("resourceCache.misses"));
+		assertEquals(List.of("id", "version", "quantity"), List.copyOf(((ClassDefinition) api.getSchemas().get("Order")).getChildren().keySet()));
+	}
+	
+	@Test
+	void testUnresolvedReturnTypeIsScannedAgain() throws IOException {
+		Map<String, String> sources = new HashMap<String, String>(SOURCES);
+		sources.put("test/api/Orders.java", SOURCES.get("test/api/Orders.java").replace(" * Creates an order.", " * Creates an order.\n	 * @returnType Receipt.class"));
+		
+		assertNull(scan(sources).getResources().get(0).getMethods().get(0).getReturnType());
+		assertNull(scan(sources).getResources().get(0).getMethods().get(0).getReturnType());
+		assertEquals(1, metrics.getCount("resourceCache.misses"));
+		
+		// The resource source did not change, the new type alone has to invalidate the entry
+		sources.put("test/Receipt.java", "package test;\npublic class Receipt {\n	private long number;\n}");
+		
+		APIDefinition api = scan(sources);
+		assertEquals(1, metrics.getCount("resourceCache.misses"));
+		assertEquals(new ReferenceDefinition("Receipt"), api.getResources().get(0).getMethods().get(0).getReturnType());
+	}
+	
+	@Test
+	void testChangedClasspathTypeIsScannedAgain(@TempDir Path library) throws IOException {
+		Map<String, String> sources = new HashMap<String, String>(SOURCES);
+		sources.put("test/api/Orders.java", SOURCES.get("test/api/Orders.java").replace(" * Creates an order.", " * Creates an order.\n	 * @returnType lib.Receipt.class"));
+		String classpath = System.getProperty("java.class.path") + File.pathSeparator + library.resolve("classes");
+		
+		compile(library, "package lib;\npublic class Receipt {\n	private long number;\n}");
+		scan(sources, classpath);
+		scan(sources, classpath);
+		assertEquals(1, metrics.getCount("resourceCache.hits"));
+		
+		// Only the class file changes, as when the jar holding it is updated
+		compile(library, "package lib;\npublic class Receipt {\n	private long number;\n	private String total;\n}");
+		APIDefinition api = scan(sources, classpath);
+		assertEquals(1, metrics.getCount("resourceCache.misses"));
+		assertEquals(List.of("number", "total"), List.copyOf(((ClassDefinition) api.getSchemas().get("Receipt")).getChildren().keySet()));
+	}
+	
+	private static void compile(Path library, String source) throws IOException {
+		Path file = Files.createDirectories(library.resolve("src/lib")).resolve("Receipt.java");
+		Files.writeString(file, source);
+		assertEquals(0, ToolProvider.getSystemJavaCompiler().run(null, null, null, "-d", library.resolve("classes").toString(), file.toString()));
+	}
+	
+	private APIDefinition scan(Map<String, String> sources) throws IOException {
+		return scan(sources, System.getProperty("java.class.path"));
+	}
+	
+	private APIDefinition scan(Map<String, String> sources, String classpath) throws IOException {
+		metrics = new Metrics(true);
+		
+		return OpenAPIScannerTest.scan(sources, classpath, scanner -> {
+			scanner.setMetrics(metrics);
+			scanner.setCacheDirectory(cacheDirectory);
+		});
+	}
+}
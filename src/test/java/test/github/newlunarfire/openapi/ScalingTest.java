@@ -0,0 +1,151 @@
+package test.github.newlunarfire.openapi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import javax.tools.DocumentationTool;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import io.github.newlunarfire.openapi.OpenAPIDoclet;
+
+@Tag("scaling")
+public class ScalingTest {
+	// Time per resource at the largest size may be at most this many times the time per resource at the smallest size.
+	// Wall-clock time varies too much on shared machines, so it is only checked when the property is set.
+	private static final String MAX_SCALING_FACTOR = System.getProperty("openapi.scaling.maxFactor");
+	private static final long HEAP_BUDGET_BYTES = Long.parseLong(System.getProperty("openapi.scaling.heapBudget", String.valueOf(1536L * 1024 * 1024)));
+	private static final List<Integer> SIZES = Arrays.stream(System.getProperty("openapi.scaling.sizes", "100,1000,10000").split(","))
+			.map(Integer::valueOf)
+			.collect(Collectors.toList());
+	private static final boolean STREAMING = Boolean.getBoolean("openapi.scaling.streaming");
+	
+	@TempDir
+	Path directory;
+	
+	@Test
+	void testDocletScalesLinearlyWithinHeapBudget() throws IOException {
+		List<Run> runs = new ArrayList<Run>();
+		
+		// Warm up the compiler and the doclet so the smallest size is not dominated by class loading
+		run(SIZES.get(0), directory.resolve("warmup"));
+		
+		for(int size : SIZES) {
+			Run run = run(size, directory.resolve(String.valueOf(size)));
+			System.out.println(String.format("%6d resources: %8d ms, %6d MB peak heap", size, run.millis, run.peakHeapBytes / (1024 * 1024)));
+			runs.add(run);
+		}
+		
+		Run smallest = runs.get(0);
+		Run largest = runs.get(runs.size() - 1);
+		double factor = (largest.millis / (double) largest.resources) / (smallest.millis / (double) smallest.resources);
+		String growth = String.format("Time per resource grew %.2f times from %d to %d resources", factor, smallest.resources, largest.resources);
+		System.out.println(growth);
+		
+		if(MAX_SCALING_FACTOR != null) {
+			assertTrue(factor <= Double.parseDouble(MAX_SCALING_FACTOR), growth);
+		}
+		
+		for(Run run : runs) {
+			assertTrue(run.peakHeapBytes <= HEAP_BUDGET_BYTES, String.format("%d resources used %d MB of heap", run.resources, run.peakHeapBytes / (1024 * 1024)));
+		}
+	}
+	
+	private Run run(int resources, Path root) throws IOException {
+		Path sources = root.resolve("src");
+		Path output = root.resolve("out");
+		Files.createDirectories(output);
+		
+		SyntheticApiGenerator generator = new SyntheticApiGenerator()
+				.resources(resources)
+				.depth(3)
+				.fanOut(2)
+				.enums(true)
+				.lists(true)
+				.recursion(true);
+		List<Path> files = generator.generate(sources);
+		
+		DocumentationTool tool = ToolProvider.getSystemDocumentationTool();
+		List<String> options = new ArrayList<String>(List.of(
+			"-quiet",
+			"-classpath", System.getProperty("java.class.path"),
+			"-d", output.toString(),
+			"-doctitle", "Scaling",
+			"-apiVersion", "1.0.0",
+			"-apiServers", "[]",
+			"-apiPackages", SyntheticApiGenerator.RESOURCE_PACKAGE
+		));
+		
+		if(STREAMING) {
+			options.add("-apiStreaming");
+		}
+		
+		System.gc();
+		resetPeakHeap();
+		long start = System.nanoTime();
+		
+		try(StandardJavaFileManager fileManager = tool.getStandardFileManager(null, Locale.ROOT, StandardCharsets.UTF_8)) {
+			Boolean success = tool.getTask(null, fileManager, null, OpenAPIDoclet.class, options, fileManager.getJavaFileObjectsFromPaths(files)).call();
+			assertTrue(success, "javadoc failed for " + resources + " resources");
+		}
+		
+		long millis = (System.nanoTime() - start) / 1_000_000;
+		long peakHeapBytes = peakHeap();
+		
+		try(Reader reader = Files.newBufferedReader(output.resolve("openapi.json"), StandardCharsets.UTF_8)) {
+			JsonObject spec = JsonParser.parseReader(reader).getAsJsonObject();
+			assertEquals(resources * 2, spec.getAsJsonObject("paths").size());
+			assertEquals(generator.types(), spec.getAsJsonObject("components").getAsJsonObject("schemas").size());
+		}
+		
+		return new Run(resources, millis, peakHeapBytes);
+	}
+	
+	private static void resetPeakHeap() {
+		for(MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if(pool.getType() == MemoryType.HEAP) {
+				pool.resetPeakUsage();
+			}
+		}
+	}
+	
+	private static long peakHeap() {
+		return ManagementFactory.getMemoryPoolMXBeans().stream()
+				.filter(pool -> pool.getType() == MemoryType.HEAP)
+				.mapToLong(pool -> pool.getPeakUsage().getUsed())
+				.sum();
+	}
+	
+	private static class Run {
+		private final int resources;
+		private final long millis;
+		private final long peakHeapBytes;
+		
+		private Run(int resources, long millis, long peakHeapBytes) {
+			this.resources = resources;
+			this.millis = millis;
+			this.peakHeapBytes = peakHeapBytes;
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package test.github.newlunarfire.openapi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import io.github.newlunarfire.openapi.defs.APIDefinition;
+import io.github.newlunarfire.openapi.defs.MethodDefinition;
+import io.github.newlunarfire.openapi.defs.ResourceDefinition;
+import io.github.newlunarfire.openapi.defs.type.ClassDefinition;
+import io.github.newlunarfire.openapi.defs.type.ReferenceDefinition;
+import io.github.newlunarfire.openapi.output.OutputDirectory;
+import io.github.newlunarfire.openapi.output.OutputEmitter;
+
+public class ShardedOutputTest {
+	@TempDir
+	Path directory;
+	
+	@Test
+	void testShardsAreLinkedByRelativeReferences() throws IOException {
+		APIDefinition api = api("/nodes", "/api/items");
+		
+		assertEquals(4, write(api));
+		
+		JsonObject root = read("openapi.json");
+		assertEquals("paths/nodes.json#/~1nodes~1%7Bid%7D", root.getAsJsonObject("paths").getAsJsonObject("/nodes/{id}").get("$ref").getAsString());
+		assertEquals("paths/api_items.json#/~1api~1items~1%7Bid%7D", root.getAsJsonObject("paths").getAsJsonObject("/api/items/{id}").get("$ref").getAsString());
+		assertEquals("schemas/Node.json", root.getAsJsonObject("components").getAsJsonObject("schemas").getAsJsonObject("Node").get("$ref").getAsString());
+		
+		JsonObject shard = read("paths/nodes.json");
+		assertEquals("../schemas/Node.json", shard.getAsJsonObject("/nodes/{id}").getAsJsonObject("get").getAsJsonObject("responses")
+				.getAsJsonObject("200").getAsJsonObject("content").getAsJsonObject("application/json").getAsJsonObject("schema").get("$ref").getAsString());
+		assertEquals("Node.json", read("schemas/Node.json").getAsJsonObject("properties").getAsJsonObject("parent").get("$ref").getAsString());
+	}
+	
+	@Test
+	void testOnlyChangedShardsAreRewrittenAndStaleShardsAreRemoved() throws IOException {
+		write(api("/nodes", "/api/items"));
+		
+		assertEquals(0, write(api("/nodes", "/api/items")));
+		// The root document and the removed shard change
+		assertEquals(1, write(api("/nodes")));
+		assertFalse(Files.exists(directory.resolve("paths/api_items.json")));
+		assertFalse(Files.exists(directory.resolve("paths/api_items.json.sha256")));
+		assertTrue(Files.exists(directory.resolve("paths/nodes.json")));
+	}
+	
+	private int write(APIDefinition api) throws IOException {
+		try(OutputDirectory output = new OutputDirectory(directory, List.of(OutputDirectory.FORMAT_JSON))) {
+			new OutputEmitter(api).emitSharded(output);
+			return output.getChanged();
+		}
+	}
+	
+	private JsonObject read(String file) throws IOException {
+		return JsonParser.parseString(Files.readString(directory.resolve(file), StandardCharsets.UTF_8)).getAsJsonObject();
+	}
+	
+	private static APIDefinition api(String... basePaths) {
+		ClassDefinition node = new ClassDefinition();
+		node.getChildren().put("parent", new ReferenceDefinition("Node"));
+		
+		APIDefinition api = new APIDefinition();
+		api.setServers("[]");
+		api.setResources(new ArrayList<ResourceDefinition>());
+		api.getSchemas().put("Node", node);
+		
+		for(String basePath : basePaths) {
+			MethodDefinition get = new MethodDefinition();
+			get.setVerb("GET");
+			get.setPath("/{id}");
+			get.setProduces("application/json");
+			get.setReturnType(new ReferenceDefinition("Node"));
+			
+			ResourceDefinition resource = new ResourceDefinition();
+			resource.setBasePath(basePath);
+			resource.getMethods().add(get);
+			api.getResources().add(resource);
+		}
+		
+		return api;
+	}
+}
@@ -0,0 +1,124 @@
+package test.github.newlunarfire.openapi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.newlunarfire.openapi.defs.APIDefinition;
+import io.github.newlunarfire.openapi.defs.MethodDefinition;
+import io.github.newlunarfire.openapi.defs.ResourceDefinition;
+import io.github.newlunarfire.openapi.defs.type.ClassDefinition;
+import io.github.newlunarfire.openapi.defs.type.EnumDefinition;
+import io.github.newlunarfire.openapi.defs.type.ListDefinition;
+import io.github.newlunarfire.openapi.defs.type.MapDefinition;
+import io.github.newlunarfire.openapi.defs.type.PrimitiveDefinition;
+import io.github.newlunarfire.openapi.defs.type.ReferenceDefinition;
+import io.github.newlunarfire.openapi.snapshot.SnapshotCodec;
+
+public class SnapshotCodecTest {
+	@Test
+	void testSnapshotRoundTrip() throws IOException {
+		APIDefinition api = nodes();
+		
+		assertEquals(api, SnapshotCodec.read(new ByteArrayInputStream(write(api))));
+	}
+	
+	@Test
+	void testOtherFilesAreRejected() {
+		assertThrows(IOException.class, () -> SnapshotCodec.read(new ByteArrayInputStream("{\"openapi\": \"3.0.1\"}".getBytes())));
+	}
+	
+	@Test
+	void testTruncatedSnapshotsAreRejected() throws IOException {
+		byte[] snapshot = write(nodes());
+		
+		for(int length = 0; length < snapshot.length; length++) {
+			byte[] truncated = Arrays.copyOf(snapshot, length);
+			assertThrows(IOException.class, () -> SnapshotCodec.read(new ByteArrayInputStream(truncated)), "Truncated to " + length + " bytes");
+		}
+	}
+	
+	@Test
+	void testCorruptSizesAreRejected() {
+		// Magic number and version 3, then the title as a new string whose length is corrupt
+		byte[] header = { 0x4f, 0x41, 0x53, 0x53, 3, 1 };
+		byte[] negative = { (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x0f };
+		byte[] beyondInput = { (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x07 };
+		
+		IOException e = assertThrows(IOException.class, () -> SnapshotCodec.read(new ByteArrayInputStream(concat(header, negative))));
+		assertEquals("Negative size -1 in snapshot", e.getMessage());
+		
+		e = assertThrows(IOException.class, () -> SnapshotCodec.read(new ByteArrayInputStream(concat(header, beyondInput))));
+		assertTrue(e.getMessage().startsWith("Truncated snapshot"));
+	}
+	
+	private static byte[] write(APIDefinition api) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		SnapshotCodec.write(api, out);
+		return out.toByteArray();
+	}
+	
+	private static byte[] concat(byte[] first, byte[] second) {
+		byte[] bytes = Arrays.copyOf(first, first.length + second.length);
+		System.arraycopy(second, 0, bytes, first.length, second.length);
+		return bytes;
+	}
+	
+	private static APIDefinition nodes() {
+		PrimitiveDefinition id = PrimitiveDefinition.of("integer").withDescription("The identifier");
+		
+		EnumDefinition state = new EnumDefinition();
+		state.getValues().put("OPEN", "Still open");
+		state.getValues().put("CLOSED", null);
+		
+		ListDefinition children = new ListDefinition();
+		children.setSubType(new ReferenceDefinition("Node"));
+		children.setUniqueItems(true);
+		
+		MapDefinition labels = new MapDefinition();
+		labels.setValueType(id);
+		
+		ClassDefinition node = new ClassDefinition();
+		node.setDescription("A node with an identifier, a state and its children");
+		node.getChildren().put("id", id);
+		node.getChildren().put("state", state);
+		node.getChildren().put("children", children);
+		node.getChildren().put("labels", labels);
+		
+		MethodDefinition get = new MethodDefinition();
+		get.setName("get");
+		get.setVerb("GET");
+		get.setPath("/{id}");
+		get.setProduces("application/json");
+		get.setBody("Returns a node");
+		get.addPathParameter("id", id);
+		get.addPathParameterDescription("id", "The identifier");
+		get.setReturnType(new ReferenceDefinition("Node"));
+		
+		MethodDefinition delete = new MethodDefinition();
+		delete.setName("delete");
+		delete.setVerb("DELETE");
+		delete.setPath("/{id}");
+		
+		ResourceDefinition resource = new ResourceDefinition();
+		resource.setBasePath("/nodes");
+		resource.getMethods().add(get);
+		resource.getMethods().add(delete);
+		
+		APIDefinition api = new APIDefinition();
+		api.setTitle("Nodes");
+		api.setVersion("1.0");
+		api.setServers("[]");
+		api.setResources(List.of(resource));
+		api.getSchemas().put("Node", node);
+		return api;
+	}
+}
@@ -0,0 +1,120 @@
+package test.github.newlunarfire.openapi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.tools.DocumentationTool;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import io.github.newlunarfire.openapi.OpenAPIDoclet;
+
+public class StreamingOutputTest {
+	private static final Map<String, String> SOURCES = Map.of(
+		"test/Item.java", String.join("\n",
+			"package test;",
+			"/** An item. */",
+			"public class Item {",
+			"	/** Identifier. */",
+			"	private long id;",
+			"}"),
+		// Alpha and Gamma both declare /items/{id}, Beta is scanned between them
+		"test/api/Alpha.java", String.join("\n",
+			"package test.api;",
+			"import javax.ws.rs.*;",
+			"@Path(\"/items\")",
+			"public class Alpha {",
+			"	/**",
+			"	 * Gets an item.",
+			"	 * @returnType test.Item.class",
+			"	 */",
+			"	@GET @Path(\"/{id}\") @Produces(\"application/json\")",
+			"	public Object get(@PathParam(\"id\") long id) { return null; }",
+			"}"),
+		"test/api/Beta.java", String.join("\n",
+			"package test.api;",
+			"import javax.ws.rs.*;",
+			"@Path(\"/other\")",
+			"public class Beta {",
+			"	/** Lists other items. */",
+			"	@GET @Produces(\"application/json\")",
+			"	public Object list() { return null; }",
+			"}"),
+		"test/api/Gamma.java", String.join("\n",
+			"package test.api;",
+			"import javax.ws.rs.*;",
+			"@Path(\"/items/{id}\")",
+			"public class Gamma {",
+			"	/** Deletes an item. */",
+			"	@DELETE @Produces(\"application/json\")",
+			"	public void delete(@PathParam(\"id\") long id) { }",
+			"}"));
+	
+	@TempDir
+	Path directory;
+	
+	@Test
+	void testStreamingWritesTheSameDocument() throws IOException {
+		List<Path> files = new ArrayList<Path>();
+		
+		for(var source : SOURCES.entrySet()) {
+			Path file = directory.resolve("src").resolve(source.getKey());
+			Files.createDirectories(file.getParent());
+			Files.writeString(file, source.getValue(), StandardCharsets.UTF_8);
+			files.add(file);
+		}
+		
+		JsonObject collected = document(files, directory.resolve("collected"), false);
+		JsonObject streamed = document(files, directory.resolve("streamed"), true);
+		
+		assertEquals(Set.of("get", "delete"), streamed.getAsJsonObject("paths").getAsJsonObject("/items/{id}").keySet());
+		assertEquals(collected.getAsJsonObject("paths"), streamed.getAsJsonObject("paths"));
+		assertEquals(collected.getAsJsonObject("components"), streamed.getAsJsonObject("components"));
+		assertTrue(streamed.getAsJsonObject("components").getAsJsonObject("schemas").has("Item"));
+	}
+	
+	private static JsonObject document(List<Path> files, Path output, boolean streaming) throws IOException {
+		Files.createDirectories(output);
+		
+		List<String> options = new ArrayList<String>(List.of(
+			"-quiet",
+			"-classpath", System.getProperty("java.class.path"),
+			"-d", output.toString(),
+			"-doctitle", "Streaming",
+			"-apiVersion", "1.0.0",
+			"-apiServers", "[]",
+			"-apiPackages", "test.api"
+		));
+		
+		if(streaming) {
+			options.add("-apiStreaming");
+		}
+		
+		DocumentationTool tool = ToolProvider.getSystemDocumentationTool();
+		
+		try(StandardJavaFileManager fileManager = tool.getStandardFileManager(null, Locale.ROOT, StandardCharsets.UTF_8)) {
+			assertTrue(tool.getTask(null, fileManager, null, OpenAPIDoclet.class, options, fileManager.getJavaFileObjectsFromPaths(files)).call());
+		}
+		
+		try(Reader reader = Files.newBufferedReader(output.resolve("openapi.json"), StandardCharsets.UTF_8)) {
+			return JsonParser.parseReader(reader).getAsJsonObject();
+		}
+	}
+}
@@ -0,0 +1,169 @@
+package test.github.newlunarfire.openapi;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SyntheticApiGenerator {
+	public static final String RESOURCE_PACKAGE = "synthetic.api";
+	public static final String DTO_PACKAGE = "synthetic.dto";
+	
+	private int resources = 10;
+	private int depth = 2;
+	private int fanOut = 1;
+	private boolean enums = false;
+	private boolean lists = false;
+	private boolean recursion = false;
+	
+	public SyntheticApiGenerator resources(int resources) {
+		this.resources = resources;
+		return this;
+	}
+	
+	public SyntheticApiGenerator depth(int depth) {
+		this.depth = depth;
+		return this;
+	}
+	
+	public SyntheticApiGenerator fanOut(int fanOut) {
+		this.fanOut = fanOut;
+		return this;
+	}
+	
+	public SyntheticApiGenerator enums(boolean enums) {
+		this.enums = enums;
+		return this;
+	}
+	
+	public SyntheticApiGenerator lists(boolean lists) {
+		this.lists = lists;
+		return this;
+	}
+	
+	public SyntheticApiGenerator recursion(boolean recursion) {
+		this.recursion = recursion;
+		return this;
+	}
+	
+	/**
+	 * Number of DTO and enum types generated, each of them is a schema of the document.
+	 */
+	public int types() {
+		int perResource = 0;
+		
+		for(int level = 0, width = 1; level < depth; level++, width *= fanOut) {
+			perResource += width;
+		}
+		
+		return resources * perResource + (enums ? 1 : 0);
+	}
+	
+	public List<Path> generate(Path directory) throws IOException {
+		List<Path> sources = new ArrayList<Path>();
+		
+		if(enums) {
+			sources.add(write(directory, DTO_PACKAGE, "Status", status()));
+		}
+		
+		for(int i = 0; i < resources; i++) {
+			sources.add(write(directory, RESOURCE_PACKAGE, "Resource" + i, resource(i)));
+			
+			// Each DTO has fanOut distinct child DTOs, so a level has fanOut times more types than the one above
+			for(int level = 0, width = 1; level < depth; level++, width *= fanOut) {
+				for(int node = 0; node < width; node++) {
+					sources.add(write(directory, DTO_PACKAGE, dtoName(i, level, node), dto(i, level, node)));
+				}
+			}
+		}
+		
+		return sources;
+	}
+	
+	private String resource(int i) {
+		return "package " + RESOURCE_PACKAGE + ";\n"
+			+ "\n"
+			+ "import javax.ws.rs.*;\n"
+			+ "import " + DTO_PACKAGE + ".*;\n"
+			+ "\n"
+			+ "@Path(\"/resource" + i + "\")\n"
+			+ "public class Resource" + i + " {\n"
+			+ "\t/**\n"
+			+ "\t * Get an item.\n"
+			+ "\t * @param id the item id\n"
+			+ "\t * @returnType " + dtoName(i, 0, 0) + ".class\n"
+			+ "\t */\n"
+			+ "\t@GET\n"
+			+ "\t@Path(\"/{id}\")\n"
+			+ "\t@Produces(\"application/json\")\n"
+			+ "\tpublic Object get(@PathParam(\"id\") long id) { return null; }\n"
+			+ "\n"
+			+ "\t/**\n"
+			+ "\t * Create an item.\n"
+			+ "\t * @returnType " + dtoName(i, 0, 0) + ".class\n"
+			+ "\t */\n"
+			+ "\t@POST\n"
+			+ "\t@Consumes(\"application/json\")\n"
+			+ "\t@Produces(\"application/json\")\n"
+			+ "\tpublic Object create(" + dtoName(i, 0, 0) + " item) { return null; }\n"
+			+ "}\n";
+	}
+	
+	private String dto(int i, int level, int node) {
+		StringBuilder source = new StringBuilder()
+			.append("package ").append(DTO_PACKAGE).append(";\n\n")
+			.append("import java.util.List;\n\n")
+			.append("/** Level ").append(level).append(" of item ").append(i).append(". */\n")
+			.append("public class ").append(dtoName(i, level, node)).append(" {\n")
+			.append("\t/** Identifier. */\n")
+			.append("\tprivate long id;\n")
+			.append("\tprivate String name;\n")
+			.append("\tprivate boolean active;\n");
+		
+		if(enums) {
+			source.append("\tprivate Status status;\n");
+		}
+		
+		if(lists) {
+			source.append("\tprivate List<String> tags;\n");
+		}
+		
+		if(recursion) {
+			source.append("\tprivate ").append(dtoName(i, level, node)).append(" parent;\n");
+		}
+		
+		if(level + 1 < depth) {
+			for(int child = 0; child < fanOut; child++) {
+				final String childName = dtoName(i, level + 1, node * fanOut + child);
+				source.append("\tprivate ").append(lists ? "List<" + childName + ">" : childName).append(" child").append(child).append(";\n");
+			}
+		}
+		
+		return source.append("}\n").toString();
+	}
+	
+	private String status() {
+		return "package " + DTO_PACKAGE + ";\n"
+			+ "\n"
+			+ "/** Lifecycle of an item. */\n"
+			+ "public enum Status {\n"
+			+ "\t/** Visible to clients. */\n"
+			+ "\tACTIVE,\n"
+			+ "\tSUSPENDED,\n"
+			+ "\tDELETED\n"
+			+ "}\n";
+	}
+	
+	private static String dtoName(int i, int level, int node) {
+		return "Item" + i + "Level" + level + "Node" + node;
+	}
+	
+	private static Path write(Path directory, String packageName, String className, String source) throws IOException {
+		Path file = directory.resolve(packageName.replace('.', '/')).resolve(className + ".java");
+		Files.createDirectories(file.getParent());
+		Files.writeString(file, source, StandardCharsets.UTF_8);
+		return file;
+	}
+}
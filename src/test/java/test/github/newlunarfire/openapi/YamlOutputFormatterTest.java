@@ -0,0 +1,125 @@
+package test.github.newlunarfire.openapi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.newlunarfire.openapi.defs.APIDefinition;
+import io.github.newlunarfire.openapi.defs.MethodDefinition;
+import io.github.newlunarfire.openapi.defs.ResourceDefinition;
+import io.github.newlunarfire.openapi.defs.type.ClassDefinition;
+import io.github.newlunarfire.openapi.defs.type.PrimitiveDefinition;
+import io.github.newlunarfire.openapi.defs.type.ReferenceDefinition;
+import io.github.newlunarfire.openapi.output.JsonOutputFormatter;
+import io.github.newlunarfire.openapi.output.MulticastOutputListener;
+import io.github.newlunarfire.openapi.output.OutputEmitter;
+import io.github.newlunarfire.openapi.output.YamlOutputFormatter;
+
+public class YamlOutputFormatterTest {
+	@Test
+	void testYamlIsWrittenInTheSameTraversalAsJson() throws IOException {
+		PrimitiveDefinition id = PrimitiveDefinition.of("long");
+		
+		ClassDefinition node = new ClassDefinition();
+		node.setDescription("A node: with \"quotes\"");
+		node.getChildren().put("parent", new ReferenceDefinition("Node"));
+		
+		MethodDefinition get = new MethodDefinition();
+		get.setVerb("GET");
+		get.setPath("/{id}");
+		get.setProduces("application/json");
+		get.setReturnType(new ReferenceDefinition("Node"));
+		get.addPathParameter("id", id);
+		
+		ResourceDefinition resource = new ResourceDefinition();
+		resource.setBasePath("/nodes");
+		resource.getMethods().add(get);
+		
+		APIDefinition api = new APIDefinition();
+		api.setTitle("Nodes");
+		api.setVersion("1.0.0");
+		api.setServers("[{\"url\":\"http://api.example.com/\"}]");
+		api.setResources(List.of(resource));
+		api.getSchemas().put("Node", node);
+		
+		ByteArrayOutputStream json = new ByteArrayOutputStream();
+		ByteArrayOutputStream yaml = new ByteArrayOutputStream();
+		new OutputEmitter(api).emit(new MulticastOutputListener(List.of(new JsonOutputFormatter(json), new YamlOutputFormatter(yaml))));
+		
+		assertEquals(String.join("\n",
+			"openapi: \"3.0.0\"",
+			"info:",
+			"  title: Nodes",
+			"  version: \"1.0.0\"",
+			"servers:",
+			"  - url: \"http://api.example.com/\"",
+			"paths:",
+			"  \"/nodes/{id}\":",
+			"    get:",
+			"      parameters:",
+			"        - name: id",
+			"          in: path",
+			"          required: true",
+			"          schema:",
+			"            type: integer",
+			"      responses:",
+			"        \"200\":",
+			"          description: \"\"",
+			"          content:",
+			"            application/json:",
+			"              schema:",
+			"                \"$ref\": \"#/components/schemas/Node\"",
+			"components:",
+			"  schemas:",
+			"    Node:",
+			"      type: object",
+			"      description: \"A node: with \\\"quotes\\\"\"",
+			"      properties:",
+			"        parent:",
+			"          \"$ref\": \"#/components/schemas/Node\"",
+			""), yaml.toString("UTF-8"));
+		
+		ByteArrayOutputStream jsonOnly = new ByteArrayOutputStream();
+		new OutputEmitter(api).emit(new JsonOutputFormatter(jsonOnly));
+		assertEquals(jsonOnly.toString("UTF-8"), json.toString("UTF-8"));
+	}
+	
+	@Test
+	void testParallelRenderingMatchesSequentialRendering() throws IOException {
+		APIDefinition api = new APIDefinition();
+		api.setServers("[]");
+		api.setResources(new ArrayList<ResourceDefinition>());
+		
+		for(int i = 0; i < 300; i++) {
+			MethodDefinition mdef = new MethodDefinition();
+			mdef.setVerb(i % 2 == 0 ? "GET" : "POST");
+			mdef.setPath("/" + (i / 2));
+			mdef.setBody("Operation\n" + i);
+			mdef.setProduces("application/json");
+			mdef.setConsumes("application/json");
+			mdef.setReturnType(new ReferenceDefinition("Node"));
+			mdef.setRequestBody(new ClassDefinition());
+			
+			ResourceDefinition resource = new ResourceDefinition();
+			resource.setBasePath("/items");
+			resource.getMethods().add(mdef);
+			api.getResources().add(resource);
+		}
+		
+		OutputEmitter parallel = new OutputEmitter(api);
+		parallel.setParallelism(3);
+		
+		assertEquals(render(new OutputEmitter(api)), render(parallel));
+	}
+	
+	private String render(OutputEmitter emitter) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		emitter.emit(new YamlOutputFormatter(out));
+		return out.toString("UTF-8");
+	}
+}